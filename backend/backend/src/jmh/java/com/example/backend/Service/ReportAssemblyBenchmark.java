@@ -0,0 +1,46 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.BenchData;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.gdms.SipAccountRow;
+import com.example.backend.model.DeviceReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** The GDMSService loops that turn fetched rows into the device and SIP reports. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReportAssemblyBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int devices;
+
+    private List<DeviceRow> deviceRows;
+    private Map<String, AccountStatus> statuses;
+    private List<SipAccountRow> sipAccounts;
+
+    @Setup
+    public void setup() {
+        deviceRows = BenchData.deviceRows(devices);
+        statuses = BenchData.accountStatuses(devices);
+        sipAccounts = BenchData.sipAccountRows(devices);
+    }
+
+    @Benchmark
+    public List<DeviceReport> deviceReport() {
+        return GDMSService.assembleDeviceReport(deviceRows, statuses);
+    }
+
+    @Benchmark
+    public List<Map<String, String>> sipReport() {
+        return GDMSService.assembleSipReport(sipAccounts, statuses);
+    }
+}
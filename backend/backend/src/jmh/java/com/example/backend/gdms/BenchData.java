@@ -0,0 +1,165 @@
+package com.example.backend.gdms;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Benchmark inputs scaled from the checked-in dumps ({@code devices_by_org.selected.json},
+ * {@code status_by_org.all_devices.json}). Seed rows are cycled and given unique MACs, serials
+ * and SIP user ids so lookups behave like a real org of the requested size.
+ *
+ * The dumps are read from {@code -Dgdms.bench.data} (default {@code ..}, i.e. {@code backend/}
+ * when running from the Maven module).
+ */
+public final class BenchData {
+
+    private static final Path DATA_DIR = Path.of(System.getProperty("gdms.bench.data", ".."));
+    private static final int ORG_ID = 119499;
+
+    private BenchData() {}
+
+    // ---- Raw Maps (what the Map-based APIs and MiniJson see) ----
+
+    /** {@code n} device rows as returned by {@code /device/list}. */
+    public static List<Map<String, Object>> devices(int n) {
+        List<Map<String, Object>> seed = seed("devices_by_org.selected.json", "data");
+        List<Map<String, Object>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> d = new LinkedHashMap<>(seed.get(i % seed.size()));
+            d.put("mac", mac(i));
+            d.put("sn", d.get("sn") + "-" + i);
+            d.put("deviceName", d.get("deviceName") + "-" + i);
+            d.put("orgId", ORG_ID);
+            out.add(d);
+        }
+        return out;
+    }
+
+    /** Status crawl payload ({@code success}/{@code failures}/{@code meta}) for {@code n} devices. */
+    public static Map<String, Object> statusPayload(int n) {
+        List<Map<String, Object>> seed = seed("status_by_org.all_devices.json", "success");
+        List<Map<String, Object>> devices = devices(n);
+        List<Map<String, Object>> success = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> s = new LinkedHashMap<>(devices.get(i));
+            Map<String, Object> st = seed.get(i % seed.size());
+            s.put("accountStatus", st.get("accountStatus"));
+            s.put("dnd", st.get("dnd"));
+            s.put("syncFailureMsg", st.get("syncFailureMsg"));
+            s.put("sipAccountInfoList", sipLines(i, st.get("sipAccountInfoList")));
+            success.add(s);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("success", success);
+        payload.put("failures", new ArrayList<>());
+        payload.put("meta", Map.of("total", n, "success", n, "failures", 0));
+        return payload;
+    }
+
+    /** One SIP account per device line 1, as returned by {@code /sip/account/list}. */
+    public static List<Map<String, Object>> sipAccounts(int n) {
+        List<Map<String, Object>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> a = new LinkedHashMap<>();
+            a.put("id", 5_000_000 + i);
+            a.put("orgId", String.valueOf(ORG_ID));
+            a.put("sipUserId", sipUser(i, 1));
+            a.put("accountName", "EXT-" + i);
+            a.put("displayName", "EXT-" + i);
+            a.put("serverName", "65.0.243.16:5070");
+            a.put("sipServer", "voip.connectview.in:5070");
+            a.put("status", i % 3 == 0 ? 0 : 1);
+            a.put("modifyTime", "2025-08-11 13:33");
+            a.put("source", 1);
+            a.put("extensionEmail", null);
+            a.put("orgName", null);
+            out.add(a);
+        }
+        return out;
+    }
+
+    /** A single-page {@code /device/list} envelope holding {@code n} devices, as JSON text. */
+    public static String deviceListJson(int n) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("pages", 1);
+        data.put("total", n);
+        data.put("result", devices(n));
+        Map<String, Object> env = new LinkedHashMap<>();
+        env.put("retCode", 0);
+        env.put("msg", "success");
+        env.put("data", data);
+        return GDMSAPI.MiniJson.stringify(env);
+    }
+
+    // ---- Typed rows (what the report assembly sees) ----
+
+    public static List<DeviceRow> deviceRows(int n) {
+        List<DeviceRow> out = new ArrayList<>(n);
+        for (Map<String, Object> d : devices(n)) out.add(DeviceRow.read(reader(d)));
+        return out;
+    }
+
+    public static Map<String, AccountStatus> accountStatuses(int n) {
+        Map<String, AccountStatus> out = new LinkedHashMap<>();
+        for (Object o : (List<?>) statusPayload(n).get("success")) {
+            Map<?, ?> s = (Map<?, ?>) o;
+            out.put(String.valueOf(s.get("mac")), AccountStatus.read(reader(s)));
+        }
+        return out;
+    }
+
+    public static List<SipAccountRow> sipAccountRows(int n) {
+        List<SipAccountRow> out = new ArrayList<>(n);
+        for (Map<String, Object> a : sipAccounts(n)) out.add(SipAccountRow.read(reader(a)));
+        return out;
+    }
+
+    // ---- helpers ----
+
+    private static JsonReader reader(Object value) {
+        return new JsonReader(CanonicalJson.toBytes(value));
+    }
+
+    private static List<Map<String, Object>> sipLines(int device, Object seedLines) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        if (!(seedLines instanceof List)) return out;
+        int line = 1;
+        for (Object o : (List<?>) seedLines) {
+            Map<String, Object> l = new LinkedHashMap<>(castMap(o));
+            l.put("account", line);
+            l.put("sipUserId", sipUser(device, line));
+            out.add(l);
+            line++;
+        }
+        return out;
+    }
+
+    private static String mac(int i) {
+        return String.format("C0:74:AD:%02X:%02X:%02X", (i >> 16) & 0xFF, (i >> 8) & 0xFF, i & 0xFF);
+    }
+
+    private static String sipUser(int device, int line) {
+        return String.valueOf(38_000_000 + device * 2 + line);
+    }
+
+    private static List<Map<String, Object>> seed(String file, String key) {
+        try {
+            Object parsed = GDMSAPI.MiniJson.parse(Files.readString(DATA_DIR.resolve(file)));
+            List<Map<String, Object>> out = new ArrayList<>();
+            for (Object o : (List<?>) castMap(parsed).get(key)) out.add(castMap(o));
+            if (out.isEmpty()) throw new IllegalStateException(file + " has no " + key + " rows");
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read seed " + DATA_DIR.resolve(file).toAbsolutePath()
+                    + " (set -Dgdms.bench.data)", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object o) {
+        return (Map<String, Object>) o;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.backend.gdms;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing and serializing a {@code /device/list} page of 1k/10k/100k devices. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class JsonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int devices;
+
+    private String json;
+    private byte[] bytes;
+    private Object tree;
+
+    @Setup
+    public void setup() {
+        json = BenchData.deviceListJson(devices);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+        tree = GDMSAPI.MiniJson.parse(json);
+    }
+
+    @Benchmark
+    public Object miniJsonParse() {
+        return GDMSAPI.MiniJson.parse(json);
+    }
+
+    @Benchmark
+    public Object jsonReaderTree() {
+        return new JsonReader(new ByteArrayInputStream(bytes)).nextValue();
+    }
+
+    /** What a typed listing call does: rows bound to DeviceRow straight off the byte stream. */
+    @Benchmark
+    public void jsonReaderDeviceRows(Blackhole bh) {
+        JsonReader r = new JsonReader(new ByteArrayInputStream(bytes));
+        r.beginObject();
+        for (String k; (k = r.nextName()) != null; ) {
+            if (!"data".equals(k)) { r.skipValue(); continue; }
+            r.beginObject();
+            for (String dk; (dk = r.nextName()) != null; ) {
+                if (!"result".equals(dk)) { r.skipValue(); continue; }
+                r.beginArray();
+                while (r.nextElement()) bh.consume(DeviceRow.read(r));
+            }
+        }
+    }
+
+    @Benchmark
+    public String stringify() {
+        return GDMSAPI.MiniJson.stringify(tree);
+    }
+
+    @Benchmark
+    public byte[] canonicalBytes() {
+        return CanonicalJson.toBytes(tree);
+    }
+}
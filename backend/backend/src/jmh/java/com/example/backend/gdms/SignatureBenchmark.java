@@ -0,0 +1,54 @@
+package com.example.backend.gdms;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Per-call signing cost: paid once for every status call of the fan-out. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureBenchmark {
+
+    private static final String STATUS_URL = "https://www.gdms.cloud/oapi/v1.0.0/device/account/status";
+    private static final String LIST_URL = "https://www.gdms.cloud/oapi/v1.0.0/device/list";
+    private static final String TOKEN = "8f1c2d3e-4b5a-6789-abcd-ef0123456789";
+
+    private Map<String, Object> statusBody;
+    private Map<String, Object> listBody;
+
+    @Setup
+    public void setup() {
+        statusBody = new LinkedHashMap<>();
+        statusBody.put("mac", "C0:74:AD:4C:53:75");
+        listBody = new LinkedHashMap<>();
+        listBody.put("order", "");
+        listBody.put("pageNum", 1);
+        listBody.put("pageSize", 5000);
+        listBody.put("type", "");
+        listBody.put("orgId", 119499);
+    }
+
+    @Benchmark
+    public GDMSAPI.Signature.JsonSig signStatusCall() {
+        return GDMSAPI.Signature.buildSignatureJson(STATUS_URL, TOKEN, "client-id", "client-secret",
+                1_700_000_000_000L, statusBody, true, true);
+    }
+
+    @Benchmark
+    public GDMSAPI.Signature.JsonSig signListCall() {
+        return GDMSAPI.Signature.buildSignatureJson(LIST_URL, TOKEN, "client-id", "client-secret",
+                1_700_000_000_000L, listBody, true, true);
+    }
+
+    @Benchmark
+    public String attachCommonParams() {
+        return GDMSAPI.Signature.attachCommonParamsToUrl(STATUS_URL, TOKEN, 1_700_000_000_000L,
+                "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8");
+    }
+}
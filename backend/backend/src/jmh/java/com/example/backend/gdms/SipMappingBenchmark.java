@@ -0,0 +1,34 @@
+package com.example.backend.gdms;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** {@code mapSIPAccountsToDevices} join (without its file dump) at 1k/10k/100k devices. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SipMappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int devices;
+
+    private Map<String, Object> statusPayload;
+    private List<Map<String, Object>> sipAccounts;
+
+    @Setup
+    public void setup() {
+        statusPayload = BenchData.statusPayload(devices);
+        sipAccounts = BenchData.sipAccounts(devices);
+    }
+
+    @Benchmark
+    public Map<String, Object> joinSipAccountsToDevices() {
+        return GDMSAPI.joinSIPAccountsToDevices(statusPayload, sipAccounts);
+    }
+}
@@ -17,6 +17,7 @@ public class CorsConfig {
                         .allowedOrigins("http://localhost:5173")  // React dev server
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Snapshot-Age", "X-Snapshot-Version", "X-Total-Count", "ETag")  // lets the dashboard show data age
                         .allowCredentials(true);
             }
         };
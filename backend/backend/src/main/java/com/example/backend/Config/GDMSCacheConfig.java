@@ -0,0 +1,64 @@
+package com.example.backend.Config;
+
+import com.example.backend.Service.GDMSService;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class GDMSCacheConfig {
+
+    /**
+     * Org list cache as a Caffeine async loading cache.
+     *
+     * A key has at most one load in flight: concurrent misses (the {@code @Cacheable(sync = true)}
+     * methods) wait on the same future. Entries older than {@code refresh} are reloaded in the
+     * background on their next read while the old value keeps being served, so a list in use
+     * never reaches {@code expire}. Org reports aren't here: both come from {@code OrgSnapshotStore},
+     * which refreshes ahead on its own.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            ObjectProvider<GDMSService> gdmsService,   // lazy: the service is proxied by this manager
+            @Value("${gdms.cache.max-size:500}") long maxSize,
+            @Value("${gdms.cache.expire-seconds:300}") long expireSeconds,
+            @Value("${gdms.cache.refresh-seconds:180}") long refreshSeconds,
+            @Value("${gdms.cache.load-threads:8}") int loadThreads
+    ) {
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService loads = Executors.newFixedThreadPool(Math.max(1, loadThreads), r -> {
+            Thread t = new Thread(r, "gdms-cache-load-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setAsyncCacheMode(true);
+        manager.setAllowNullValues(false);
+        manager.registerCustomCache("orgNames",
+                build(maxSize, expireSeconds, refreshSeconds, loads, key -> gdmsService.getObject().loadOrgNames()));
+        return manager;
+    }
+
+    private static AsyncCache<Object, Object> build(long maxSize, long expireSeconds, long refreshSeconds,
+                                                    ExecutorService executor, CacheLoader<Object, Object> loader) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(Math.min(refreshSeconds, Math.max(1, expireSeconds - 1))))
+                .executor(executor)
+                .recordStats()
+                .buildAsync(loader);
+    }
+}
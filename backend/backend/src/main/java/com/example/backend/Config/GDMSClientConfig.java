@@ -0,0 +1,108 @@
+package com.example.backend.Config;
+
+import com.example.backend.gdms.DumpSink;
+import com.example.backend.gdms.GDMSAPI;
+import com.example.backend.gdms.GdmsMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Configuration
+public class GDMSClientConfig {
+
+    /** Shared GDMS client, built from the gdms.* properties. */
+    @Bean(destroyMethod = "stopRefreshLoop")
+    public GDMSAPI gdmsClient(
+            @Value("${gdms.domain}") String domain,
+            @Value("${gdms.username}") String username,
+            @Value("${gdms.password}") String password,
+            @Value("${gdms.client-id}") String clientId,
+            @Value("${gdms.client-secret}") String clientSecret,
+            @Value("${gdms.scope:}") String scope,
+            @Value("${gdms.expiry-skew-seconds:120}") int expirySkewSeconds,
+            @Value("${gdms.timeout-seconds:20}") int timeoutSeconds,
+            @Value("${gdms.debug:false}") boolean debug,
+            @Value("${gdms.http.connect-timeout-seconds:20}") int connectTimeoutSeconds,
+            @Value("${gdms.http.threads:8}") int httpThreads,
+            @Value("${gdms.http.http2:true}") boolean http2,
+            @Value("${gdms.http.body-read-threads:16}") int bodyReadThreads,
+            @Value("${gdms.http.endpoint-timeouts:}") String endpointTimeouts,
+            @Value("${gdms.page-concurrency:4}") int pageConcurrency,
+            @Value("${gdms.status-concurrency:64}") int statusConcurrency,
+            @Value("${gdms.upstream-limit.initial:16}") int upstreamLimitInitial,
+            @Value("${gdms.upstream-limit.min:2}") int upstreamLimitMin,
+            @Value("${gdms.upstream-limit.max:128}") int upstreamLimitMax,
+            @Value("${gdms.retry.max-attempts:3}") int retryMaxAttempts,
+            @Value("${gdms.retry.base-delay-ms:200}") long retryBaseDelayMs,
+            @Value("${gdms.retry.max-delay-ms:2000}") long retryMaxDelayMs,
+            @Value("${gdms.retry.ret-codes:}") String retryRetCodes,
+            @Value("${gdms.circuit.window:20}") int circuitWindow,
+            @Value("${gdms.circuit.failure-rate-percent:50}") int circuitFailureRatePercent,
+            @Value("${gdms.circuit.open-seconds:30}") int circuitOpenSeconds,
+            @Value("${gdms.status-coalesce.window-ms:2000}") long statusCoalesceWindowMs,
+            DumpSink gdmsDumps,
+            GdmsMetrics gdmsMetrics
+    ) {
+        GDMSAPI client = new GDMSAPI(
+                domain,
+                username,
+                password,
+                clientId,
+                clientSecret,
+                scope.isBlank() ? null : scope,
+                expirySkewSeconds,
+                timeoutSeconds,
+                debug
+        );
+        client.setTransport(connectTimeoutSeconds, httpThreads, http2);
+        client.setBodyReadThreads(bodyReadThreads);
+        client.setRequestTimeouts(parseTimeouts(endpointTimeouts));
+        client.setPageConcurrency(pageConcurrency);
+        client.setStatusConcurrency(statusConcurrency);
+        client.setAdaptiveLimits(upstreamLimitInitial, upstreamLimitMin, upstreamLimitMax);
+        client.setRetryPolicy(retryMaxAttempts, retryBaseDelayMs, retryMaxDelayMs, parseInts(retryRetCodes));
+        client.setCircuitBreaker(circuitWindow, circuitFailureRatePercent, circuitOpenSeconds);
+        client.setStatusCoalescingWindow(statusCoalesceWindowMs);
+        client.setDumpSink(gdmsDumps);
+        client.setMetrics(gdmsMetrics);
+        client.startRefreshLoop(20, 120);
+        return client;
+    }
+
+    /** Optional debug JSON dumps, written off the request path (see {@link DumpSink}). */
+    @Bean(destroyMethod = "close")
+    public DumpSink gdmsDumps(
+            @Value("${gdms.dumps.enabled:false}") boolean enabled,
+            @Value("${gdms.dumps.dir:.}") String dir,
+            @Value("${gdms.dumps.min-interval-seconds:30}") long minIntervalSeconds
+    ) {
+        return enabled ? new DumpSink(Path.of(dir), minIntervalSeconds * 1000) : DumpSink.OFF;
+    }
+
+    /** {@code /device/list=60,/device/account/status=10} → seconds per endpoint. */
+    private static Map<String, Duration> parseTimeouts(String csv) {
+        Map<String, Duration> out = new HashMap<>();
+        for (String pair : csv.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(pair.substring(0, eq).trim(), Duration.ofSeconds(Long.parseLong(pair.substring(eq + 1).trim())));
+        }
+        return out;
+    }
+
+    private static Set<Integer> parseInts(String csv) {
+        return Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Integer::valueOf)
+                .collect(Collectors.toSet());
+    }
+}
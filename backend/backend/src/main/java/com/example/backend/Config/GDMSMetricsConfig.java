@@ -0,0 +1,134 @@
+package com.example.backend.Config;
+
+import com.example.backend.gdms.GDMSAPI;
+import com.example.backend.gdms.GdmsMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class GDMSMetricsConfig {
+
+    /**
+     * GDMS client metrics in Micrometer. Call and token timers publish percentile histograms,
+     * so p50/p95/p99 per endpoint can be computed in Prometheus across instances.
+     */
+    @Bean
+    public GdmsMetrics gdmsMetrics(MeterRegistry registry) {
+        return new MicrometerGdmsMetrics(registry);
+    }
+
+    /** Live concurrency of the client: permits held and waited for, status fan-out busy and queued. */
+    @Bean
+    public MeterBinder gdmsClientGauges(GDMSAPI client) {
+        return registry -> {
+            Gauge.builder("gdms.upstream.in.flight", client, GDMSAPI::getUpstreamInFlight)
+                    .description("Signed GDMS calls holding an adaptive-limit permit")
+                    .register(registry);
+            Gauge.builder("gdms.upstream.queued", client, GDMSAPI::getUpstreamQueued)
+                    .description("Signed GDMS calls waiting for an adaptive-limit permit")
+                    .register(registry);
+            Gauge.builder("gdms.status.fanout.active", client, GDMSAPI::getStatusFanOutActive)
+                    .description("Account status lookups running on the shared fan-out")
+                    .register(registry);
+            Gauge.builder("gdms.status.fanout.queued", client, GDMSAPI::getStatusFanOutWaiting)
+                    .description("Account status lookups waiting for a fan-out slot")
+                    .register(registry);
+        };
+    }
+
+    /** Meters are registered once per tag combination and cached; recording is a map read, no registry lookup. */
+    static final class MicrometerGdmsMetrics implements GdmsMetrics {
+
+        private final MeterRegistry registry;
+        private final Map<String, Map<String, Timer>> calls = new ConcurrentHashMap<>();
+        private final Map<String, Counter> retries = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, Counter>> retCodeFailures = new ConcurrentHashMap<>();
+        private final Map<String, Map<Boolean, Timer>> tokenRequests = new ConcurrentHashMap<>();
+        private final Timer statusCrawls;
+        private final Counter statusCrawlDevices;
+        private final Counter statusCrawlFailures;
+
+        MicrometerGdmsMetrics(MeterRegistry registry) {
+            this.registry = registry;
+            this.statusCrawls = Timer.builder("gdms.status.crawl")
+                    .description("Account status fan-out over one device list")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.statusCrawlDevices = Counter.builder("gdms.status.crawl.devices").register(registry);
+            this.statusCrawlFailures = Counter.builder("gdms.status.crawl.failures").register(registry);
+        }
+
+        @Override
+        public void call(String endpoint, String outcome, long nanos) {
+            Map<String, Timer> byOutcome = calls.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>());
+            Timer timer = byOutcome.get(outcome);
+            if (timer == null) {
+                timer = byOutcome.computeIfAbsent(outcome, o -> Timer.builder("gdms.api.calls")
+                        .description("Signed GDMS call attempts")
+                        .tag("endpoint", endpoint)
+                        .tag("outcome", o)
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void retry(String endpoint) {
+            Counter counter = retries.get(endpoint);
+            if (counter == null) {
+                counter = retries.computeIfAbsent(endpoint, e -> Counter.builder("gdms.api.retries")
+                        .description("Failed GDMS call attempts that were retried")
+                        .tag("endpoint", e)
+                        .register(registry));
+            }
+            counter.increment();
+        }
+
+        @Override
+        public void retCodeFailure(String endpoint, int retCode) {
+            Map<Integer, Counter> byRetCode = retCodeFailures.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>());
+            Counter counter = byRetCode.get(retCode);
+            if (counter == null) {
+                counter = byRetCode.computeIfAbsent(retCode, c -> Counter.builder("gdms.api.retcode.failures")
+                        .description("GDMS answers with retCode != 0")
+                        .tag("endpoint", endpoint)
+                        .tag("retCode", String.valueOf(c))
+                        .register(registry));
+            }
+            counter.increment();
+        }
+
+        @Override
+        public void tokenGrant(String grant, boolean ok, long nanos) {
+            String g = String.valueOf(grant);
+            Map<Boolean, Timer> byOutcome = tokenRequests.computeIfAbsent(g, k -> new ConcurrentHashMap<>());
+            Timer timer = byOutcome.get(ok);
+            if (timer == null) {
+                timer = byOutcome.computeIfAbsent(ok, o -> Timer.builder("gdms.token.requests")
+                        .description("OAuth token grants and refreshes")
+                        .tag("grant", g)
+                        .tag("outcome", o ? "ok" : "error")
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void statusCrawl(int devices, int failures, long nanos) {
+            statusCrawls.record(nanos, TimeUnit.NANOSECONDS);
+            statusCrawlDevices.increment(devices);
+            statusCrawlFailures.increment(failures);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.backend.Config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
@@ -14,11 +15,12 @@ public class RestTemplateConfig {
     }*/
 
     @Bean
-    public RestTemplate restTemplate() {
-        // Use HttpComponentsClientHttpRequestFactory so PATCH is supported
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-
-        return new RestTemplate(factory);
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        // Use HttpComponentsClientHttpRequestFactory so PATCH is supported.
+        // Built through the Boot builder so PBX calls are timed as http.client.requests (per URI template).
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                .build();
     }
 
 }
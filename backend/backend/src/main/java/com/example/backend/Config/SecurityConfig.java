@@ -40,6 +40,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/pbx/**").permitAll()
                         .requestMatchers("/pbx/**").permitAll()
 
+                        // ✅ health + metrics scrape
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
                         // other public endpoints
                         .requestMatchers("/pbx/auth/login").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/users/filtered-report").permitAll()
@@ -1,9 +1,26 @@
 package com.example.backend.Controller;
 
+import com.example.backend.Service.CacheWarmer;
+import com.example.backend.Service.DeviceIndex;
 import com.example.backend.Service.GDMSService;
+import com.example.backend.Service.OrgReport;
+import com.example.backend.Service.OrgSnapshot;
+import com.example.backend.Service.OrgSnapshotStore;
+import com.example.backend.Service.StatusCache;
+import com.example.backend.gdms.AdaptiveLimiter;
+import com.example.backend.gdms.CircuitBreaker;
+import com.example.backend.gdms.Coalescer;
 import com.example.backend.model.DeviceReport;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,27 +28,239 @@ import java.util.Map;
 @RequestMapping("/gdms")
 public class GDMSController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final MediaType NDJSON = MediaType.parseMediaType(NdjsonStream.MEDIA_TYPE);
+
     private final GDMSService gdmsService;
+    private final CacheWarmer cacheWarmer;
+    private final NdjsonStream ndjson;
 
-    public GDMSController(GDMSService gdmsService) {
+    public GDMSController(GDMSService gdmsService, CacheWarmer cacheWarmer, NdjsonStream ndjson) {
         this.gdmsService = gdmsService;
+        this.cacheWarmer = cacheWarmer;
+        this.ndjson = ndjson;
     }
 
-    /** ✅ Org list (ID + name) */
+    /** ✅ Org list (ID + name); ETag from its content, 304 when unchanged */
     @GetMapping("/org-names")
-    public List<Map<String, Object>> getOrgNames() {
-        return gdmsService.getOrgNames();
+    public ResponseEntity<List<Map<String, Object>>> getOrgNames(WebRequest request) {
+        List<Map<String, Object>> orgs = gdmsService.getOrgNames();
+        String etag = "W/\"orgs-" + orgs.size() + "-" + Integer.toHexString(orgs.hashCode()) + "\"";
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(orgs);
     }
 
-    /** ✅ Device report (ALL rows) */
+    /**
+     * ✅ Device report, served from the org snapshot; X-Snapshot-Age = its age in seconds.
+     * ETag = snapshot version: a matching If-None-Match gets 304 before any rows are built.
+     *
+     * Without query options: ALL rows, as before. Optional (answered from the snapshot's indexes):
+     * filters {@code status, deviceModel, firmwareVersion, siteName, pushConfiguration} (comma =
+     * any of), {@code q} = MAC or device name prefix, {@code sort=siteName,-status},
+     * {@code page} (from 0) / {@code size}, and {@code fields} to return only those columns.
+     * X-Total-Count = rows matching the filters.
+     */
     @GetMapping("/report")
-    public List<DeviceReport> getDeviceReport(@RequestParam int orgId) {
-        return gdmsService.getDeviceReportByOrg(orgId);
+    public ResponseEntity<?> getDeviceReport(@RequestParam int orgId, ReportOptions options, WebRequest request) {
+        DeviceIndex.Query query;
+        try {
+            query = options.plain() ? null : options.validatedQuery();   // before a cold org gets crawled
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        OrgSnapshot snapshot = gdmsService.getSnapshot(orgId);
+        if (notModified(request, snapshot)) return null;
+        if (query == null) {
+            OrgReport<List<DeviceReport>> report = gdmsService.getDeviceReport(snapshot);
+            return snapshotHeaders(snapshot, report).body(report.rows());
+        }
+
+        OrgReport<DeviceIndex.Page> result = gdmsService.queryDeviceReport(snapshot, query);
+        return snapshotHeaders(snapshot, result)
+                .header("X-Total-Count", String.valueOf(result.rows().total()))
+                .body(options.rows(result.rows().rows()));
+    }
+
+    /**
+     * ✅ Device report as NDJSON (one row per line), same options as /report.
+     * Org with a snapshot: its rows, with the usual ETag/304 and snapshot headers.
+     * Org not crawled yet: the crawl runs for this request and, without query options, each row is
+     * written as soon as its device status arrives (in arrival order); a client that reads slowly
+     * pauses the crawl and closing the connection stops it. With query options the rows follow
+     * once the crawl is done.
+     */
+    @GetMapping(value = "/report", produces = NdjsonStream.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamDeviceReport(
+            @RequestParam int orgId, ReportOptions options, WebRequest request) {
+        DeviceIndex.Query query;
+        try {
+            query = options.plain() ? null : options.validatedQuery();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(NDJSON).body(ndjson.of(List.of(Map.of("error", e.getMessage()))));
+        }
+
+        OrgSnapshot snapshot = gdmsService.peekSnapshot(orgId);
+        if (snapshot != null) {
+            if (notModified(request, snapshot)) return null;
+            if (query == null) {
+                OrgReport<List<DeviceReport>> report = gdmsService.getDeviceReport(snapshot);
+                return snapshotHeaders(snapshot, report).contentType(NDJSON).body(ndjson.of(report.rows()));
+            }
+            OrgReport<DeviceIndex.Page> result = gdmsService.queryDeviceReport(snapshot, query);
+            return snapshotHeaders(snapshot, result)
+                    .header("X-Total-Count", String.valueOf(result.rows().total()))
+                    .contentType(NDJSON)
+                    .body(ndjson.of(options.rows(result.rows().rows())));
+        }
+
+        StreamingResponseBody rows = ndjson.of((sink, stop) -> {
+            if (query == null) {
+                OrgSnapshot crawled = gdmsService.streamDeviceReport(orgId, sink::accept, stop);
+                if (crawled != null) gdmsService.getDeviceReport(crawled).rows().forEach(sink);  // another request's crawl
+            } else {
+                OrgSnapshot crawled = gdmsService.getSnapshot(orgId);
+                options.rows(gdmsService.queryDeviceReport(crawled, query).rows().rows()).forEach(sink);
+            }
+        });
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).contentType(NDJSON).body(rows);
     }
 
-    /** ✅ SIP report (ALL rows) */
+    /** ✅ Same as the NDJSON /report, for clients that cannot set Accept: {@code ?format=ndjson} */
+    @GetMapping(value = "/report", params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> streamDeviceReportByParam(
+            @RequestParam int orgId, ReportOptions options, WebRequest request) {
+        return streamDeviceReport(orgId, options, request);
+    }
+
+    /** ✅ SIP report (ALL rows), from the same org snapshot (and ETag rules) as /report */
     @GetMapping("/sip-report")
-    public List<Map<String, String>> getSipReport(@RequestParam int orgId) {
-        return gdmsService.getSipReportByOrg(orgId);
+    public ResponseEntity<List<Map<String, String>>> getSipReport(@RequestParam int orgId, WebRequest request) {
+        OrgSnapshot snapshot = gdmsService.getSnapshot(orgId);
+        if (notModified(request, snapshot)) return null;
+        OrgReport<List<Map<String, String>>> report = gdmsService.getSipReport(snapshot);
+        return snapshotHeaders(snapshot, report).body(report.rows());
+    }
+
+    /**
+     * ✅ SIP report as NDJSON. SIP rows are grouped per account over all devices, so for an org
+     * not crawled yet they are written once its crawl is done.
+     */
+    @GetMapping(value = "/sip-report", produces = NdjsonStream.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamSipReport(@RequestParam int orgId, WebRequest request) {
+        OrgSnapshot snapshot = gdmsService.peekSnapshot(orgId);
+        if (snapshot != null) {
+            if (notModified(request, snapshot)) return null;
+            OrgReport<List<Map<String, String>>> report = gdmsService.getSipReport(snapshot);
+            return snapshotHeaders(snapshot, report).contentType(NDJSON).body(ndjson.of(report.rows()));
+        }
+        StreamingResponseBody rows = ndjson.of((sink, stop) ->
+                gdmsService.getSipReport(gdmsService.getSnapshot(orgId)).rows().forEach(sink));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).contentType(NDJSON).body(rows);
+    }
+
+    /** ✅ {@code ?format=ndjson} form of the NDJSON /sip-report */
+    @GetMapping(value = "/sip-report", params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> streamSipReportByParam(@RequestParam int orgId, WebRequest request) {
+        return streamSipReport(orgId, request);
+    }
+
+    /** ✅ Adaptive upstream limits per GDMS endpoint */
+    @GetMapping("/upstream-limits")
+    public Map<String, AdaptiveLimiter.State> getUpstreamLimits() {
+        return gdmsService.getUpstreamLimits();
+    }
+
+    /** ✅ Circuit breaker state per GDMS endpoint */
+    @GetMapping("/upstream-circuits")
+    public Map<String, CircuitBreaker.Snapshot> getUpstreamCircuits() {
+        return gdmsService.getUpstreamCircuits();
+    }
+
+    /** ✅ Background snapshot age + refresh state per org */
+    @GetMapping("/snapshots")
+    public Map<Integer, OrgSnapshotStore.State> getSnapshots() {
+        return gdmsService.getSnapshotState();
+    }
+
+    /** ✅ Startup warm-up progress */
+    @GetMapping("/warmup")
+    public CacheWarmer.Progress getWarmup() {
+        return cacheWarmer.progress();
+    }
+
+    /** ✅ Report caches: hits/misses, load times, loads in flight */
+    @GetMapping("/cache-stats")
+    public Map<String, GDMSService.CacheStats> getCacheStats() {
+        return gdmsService.getCacheStats();
+    }
+
+    /** ✅ Per-MAC status cache: reused vs. re-queried statuses */
+    @GetMapping("/status-cache")
+    public StatusCache.Stats getStatusCacheStats() {
+        return gdmsService.getStatusCacheStats();
+    }
+
+    /** ✅ Device status calls saved by coalescing across requests */
+    @GetMapping("/upstream-coalescing")
+    public Coalescer.Stats getStatusCoalescing() {
+        return gdmsService.getStatusCoalescing();
+    }
+
+    /**
+     * {@code checkNotModified} against the snapshot ETag. JSON and NDJSON forms of a report share
+     * that ETag, so every answer (200 or 304) carries {@code Vary: Accept}.
+     */
+    private static boolean notModified(WebRequest request, OrgSnapshot snapshot) {
+        if (request instanceof ServletWebRequest web && web.getResponse() != null) {
+            web.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(snapshot.etag());
+    }
+
+    private static ResponseEntity.BodyBuilder snapshotHeaders(OrgSnapshot snapshot, OrgReport<?> report) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())      // browsers keep the body and revalidate with If-None-Match
+                .header("X-Snapshot-Age", String.valueOf(report.ageSeconds()))
+                .header("X-Snapshot-Version", String.valueOf(report.version()));
+    }
+
+    /**
+     * Optional /report query parameters (see {@link #getDeviceReport}); bound from the request by
+     * name. None set = the plain full report.
+     */
+    public record ReportOptions(List<String> status, List<String> deviceModel, List<String> firmwareVersion,
+                                List<String> siteName, List<String> pushConfiguration, String q,
+                                List<String> sort, Integer page, Integer size, List<String> fields) {
+
+        boolean plain() {
+            return status == null && deviceModel == null && firmwareVersion == null && siteName == null
+                    && pushConfiguration == null && q == null && sort == null && page == null && size == null
+                    && fields == null;
+        }
+
+        /** Throws IllegalArgumentException on an unknown column. */
+        DeviceIndex.Query query() {
+            Map<String, List<String>> filters = new LinkedHashMap<>();
+            if (status != null) filters.put("status", status);
+            if (deviceModel != null) filters.put("deviceModel", deviceModel);
+            if (firmwareVersion != null) filters.put("firmwareVersion", firmwareVersion);
+            if (siteName != null) filters.put("siteName", siteName);
+            if (pushConfiguration != null) filters.put("pushConfiguration", pushConfiguration);
+            return new DeviceIndex.Query(filters, q, sort == null ? List.of() : sort,
+                    page == null ? 0 : page, size == null ? (page == null ? 0 : DEFAULT_PAGE_SIZE) : size);
+        }
+
+        /** {@link #query()}, with {@code fields} checked too (a stream cannot turn into a 400 later). */
+        DeviceIndex.Query validatedQuery() {
+            DeviceIndex.Query query = query();
+            rows(List.of());
+            return query;
+        }
+
+        List<?> rows(List<DeviceReport> rows) {
+            return (fields == null) ? rows : DeviceIndex.project(rows, fields);
+        }
     }
 }
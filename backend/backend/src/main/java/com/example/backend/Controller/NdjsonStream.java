@@ -0,0 +1,268 @@
+package com.example.backend.Controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Report rows as NDJSON (one JSON object per line), written with the app's {@link ObjectMapper}.
+ * Output is flushed every {@link #FLUSH_EVERY} rows, and whenever the writer has nothing else to
+ * send, so the client sees rows as they come.
+ */
+@Component
+class NdjsonStream implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NdjsonStream.class);
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    static final int FLUSH_EVERY = 64;
+
+    /** Rows a stream buffers for its client before its producer is paused. */
+    static final int BUFFER_ROWS = 1024;
+
+    private static final Object END = new Object();
+
+    /**
+     * Produces rows into {@code sink} until done or until {@code stop} says so. Both may wait
+     * while the client catches up when called on the producer's own thread; from any other
+     * thread (e.g. the shared status fan-out) they never block.
+     */
+    interface Producer {
+        void produce(Consumer<Object> sink, BooleanSupplier stop) throws Exception;
+    }
+
+    private final ObjectWriter json;
+    private final ThreadPoolExecutor producers;
+    private final long stallMillis;
+
+    @Autowired
+    NdjsonStream(
+            ObjectMapper mapper,
+            @Value("${gdms.ndjson.producer-threads:8}") int producerThreads,
+            @Value("${gdms.ndjson.max-queued:32}") int maxQueued,
+            @Value("${gdms.ndjson.stall-seconds:30}") long stallSeconds
+    ) {
+        this(mapper, producerThreads, maxQueued, Duration.ofSeconds(stallSeconds));
+    }
+
+    NdjsonStream(ObjectMapper mapper, int producerThreads, int maxQueued, Duration stall) {
+        this.json = mapper.writer();
+        this.stallMillis = stall.toMillis();
+        int n = Math.max(1, producerThreads);
+        AtomicInteger count = new AtomicInteger();
+        this.producers = new ThreadPoolExecutor(n, n, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, maxQueued)), r -> {
+            Thread t = new Thread(r, "gdms-ndjson-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.producers.allowCoreThreadTimeOut(true);
+    }
+
+    /** Rows that are already in memory: written on the response thread. */
+    StreamingResponseBody of(Collection<?> rows) {
+        return out -> {
+            int pending = 0;
+            for (Object row : rows) {
+                writeLine(out, row);
+                if (++pending == FLUSH_EVERY) {
+                    out.flush();
+                    pending = 0;
+                }
+            }
+            out.flush();
+        };
+    }
+
+    /**
+     * Rows produced while the response is written. The producer runs on the bounded producer pool
+     * and hands rows to the writer through this request's buffer. Once {@link #BUFFER_ROWS} rows
+     * are waiting for a slow client the producer's thread is paused at its next {@code sink} or
+     * {@code stop} call; after {@code stall-seconds} without room the stream is stopped and ends
+     * with an {@code {"error": ...}} line. If the client goes away the write fails, {@code stop}
+     * turns true and further rows are dropped. A producer failure, or a full producer pool, also
+     * ends the stream with an error line.
+     */
+    StreamingResponseBody of(Producer producer) {
+        return out -> {
+            Channel channel = new Channel(stallMillis);
+            try {
+                producers.execute(() -> produce(producer, channel));
+            } catch (RejectedExecutionException e) {
+                log.warn("NDJSON report stream rejected: {} streams running, {} queued",
+                        producers.getActiveCount(), producers.getQueue().size());
+                writeLine(out, Map.of("error", "Too many report streams in progress, try again later"));
+                out.flush();
+                return;
+            }
+
+            try {
+                drain(channel, out);
+            } catch (IOException | InterruptedException e) {   // client gone (or the request timed out)
+                channel.cancel();
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                else throw (IOException) e;
+            }
+        };
+    }
+
+    /** Stops the producer pool; running producers are interrupted, which stops their streams. */
+    @Override
+    public void close() {
+        producers.shutdownNow();
+    }
+
+    private static void produce(Producer producer, Channel channel) {
+        channel.producer = Thread.currentThread();
+        Object last = END;
+        try {
+            producer.produce(channel::add, channel);
+        } catch (Throwable t) {
+            if (!channel.stopped) {
+                log.warn("NDJSON report stream failed", t);
+                last = new Failure(t);
+            }
+            if (t instanceof Error e) throw e;
+        } finally {
+            channel.producer = null;
+            channel.finish(last);
+        }
+    }
+
+    private void drain(Channel channel, OutputStream out) throws IOException, InterruptedException {
+        int pending = 0;
+        while (true) {
+            Object row = channel.poll();
+            if (row == null) {                                  // caught up: let the client have what we wrote
+                if (pending > 0) {
+                    out.flush();
+                    pending = 0;
+                }
+                row = channel.take();
+            }
+            if (row == END) break;
+            if (row instanceof Failure f) {
+                writeLine(out, Map.of("error", String.valueOf(f.cause().getMessage())));
+                break;
+            }
+            writeLine(out, row);
+            if (++pending == FLUSH_EVERY) {
+                out.flush();
+                pending = 0;
+            }
+        }
+        out.flush();
+    }
+
+    private void writeLine(OutputStream out, Object row) throws IOException {
+        out.write(json.writeValueAsBytes(row));
+        out.write('\n');
+    }
+
+    private record Failure(Throwable cause) {}
+
+    /**
+     * One stream's rows on their way from the producer to the writer. Rows added from other
+     * threads are never refused, so the buffer can briefly exceed {@link #BUFFER_ROWS} by the
+     * calls those threads already have in flight; the producer's own thread waits for room.
+     */
+    private static final class Channel implements BooleanSupplier {
+        private final BlockingQueue<Object> rows = new LinkedBlockingQueue<>();
+        private final long stallMillis;
+        volatile Thread producer;
+        volatile boolean stopped;
+        private volatile boolean paused;
+        private volatile long taken;                    // rows handed to the writer; only it writes
+
+        Channel(long stallMillis) {
+            this.stallMillis = stallMillis;
+        }
+
+        void add(Object row) {
+            if (Thread.currentThread() == producer) awaitRoom();
+            if (!stopped) rows.add(row);
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            if (Thread.currentThread() == producer) awaitRoom();
+            return stopped;
+        }
+
+        private synchronized void awaitRoom() {
+            long seen = taken;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stallMillis);
+            try {
+                paused = true;
+                while (!stopped && rows.size() >= BUFFER_ROWS) {
+                    if (taken != seen) {                    // the client is reading, just slowly
+                        seen = taken;
+                        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stallMillis);
+                    }
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        log.warn("NDJSON client read nothing for {} ms, stopping its stream", stallMillis);
+                        stopped = true;
+                        rows.add(new Failure(new IllegalStateException("Client too slow, stream stopped")));
+                        return;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } catch (InterruptedException e) {              // producer pool shutting down
+                Thread.currentThread().interrupt();
+                stopped = true;
+            } finally {
+                paused = false;
+            }
+        }
+
+        Object poll() {
+            return wake(rows.poll());
+        }
+
+        Object take() throws InterruptedException {
+            return wake(rows.take());
+        }
+
+        private Object wake(Object row) {
+            if (row != null) taken++;
+            if (row != null && paused && rows.size() < BUFFER_ROWS) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+            return row;
+        }
+
+        /** Client gone: drop what is buffered and let a paused producer see {@code stop}. */
+        synchronized void cancel() {
+            stopped = true;
+            rows.clear();
+            notifyAll();
+        }
+
+        void finish(Object last) {
+            rows.add(last);
+        }
+    }
+}
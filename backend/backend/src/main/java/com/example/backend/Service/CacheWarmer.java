@@ -0,0 +1,167 @@
+package com.example.backend.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Startup warm-up: once the app is ready (it doesn't wait for this), loads the org list and
+ * the snapshots of the configured orgs in the background, so the first users after a deploy
+ * don't pay for cold GDMS crawls.
+ *
+ * Orgs come from {@code gdms.warmup.org-ids}, followed by the {@code gdms.warmup.top-n} most
+ * requested orgs of previous runs ({@link OrgUsage}). At most {@code concurrency} orgs are
+ * crawled at once; whatever hasn't finished when the time budget runs out is abandoned and
+ * left to load on first use. Off by default.
+ */
+@Component
+public class CacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    public enum Phase { DISABLED, PENDING, RUNNING, DONE }
+
+    /** Warm-up progress, for the /gdms/warmup endpoint. */
+    public record Progress(Phase phase, boolean orgListLoaded, int orgs, int warmed, int failed, int skipped,
+                           long elapsedMillis, long budgetMillis) {}
+
+    private final Runnable loadOrgList;
+    private final IntConsumer warmOrg;
+    private final Supplier<List<Integer>> orgIds;
+    private final boolean enabled;
+    private final long budgetMillis;
+    private final int concurrency;
+
+    private volatile Phase phase;
+    private volatile boolean orgListLoaded;
+    private volatile int total;
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile int skipped;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    @Autowired
+    public CacheWarmer(
+            GDMSService gdmsService,
+            OrgSnapshotStore snapshots,
+            OrgUsage usage,
+            @Value("${gdms.warmup.enabled:false}") boolean enabled,
+            @Value("${gdms.warmup.org-ids:}") String orgIds,
+            @Value("${gdms.warmup.top-n:0}") int topN,
+            @Value("${gdms.warmup.time-budget-seconds:120}") long budgetSeconds,
+            @Value("${gdms.warmup.concurrency:2}") int concurrency
+    ) {
+        this(gdmsService::getOrgNames, snapshots::get, () -> pickOrgs(orgIds, usage.top(topN)),
+                enabled, budgetSeconds * 1000, concurrency);
+    }
+
+    CacheWarmer(Runnable loadOrgList, IntConsumer warmOrg, Supplier<List<Integer>> orgIds,
+                boolean enabled, long budgetMillis, int concurrency) {
+        this.loadOrgList = loadOrgList;
+        this.warmOrg = warmOrg;
+        this.orgIds = orgIds;
+        this.enabled = enabled;
+        this.budgetMillis = budgetMillis;
+        this.concurrency = Math.max(1, concurrency);
+        this.phase = enabled ? Phase.PENDING : Phase.DISABLED;
+    }
+
+    /** Configured ids first, then the most requested ones; duplicates dropped. */
+    static List<Integer> pickOrgs(String csv, List<Integer> mostRequested) {
+        LinkedHashSet<Integer> out = new LinkedHashSet<>();
+        for (String s : csv.split(",")) {
+            if (!s.isBlank()) out.add(Integer.valueOf(s.trim()));
+        }
+        out.addAll(mostRequested);
+        return new ArrayList<>(out);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled) return;
+        Thread t = new Thread(this::run, "gdms-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Runs the whole warm-up on the calling thread. */
+    void run() {
+        startedAt = System.currentTimeMillis();
+        phase = Phase.RUNNING;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        List<Integer> orgs = orgIds.get();
+        total = orgs.size();
+        log.info("Warm-up: org list + {} orgs, budget {}s", orgs.size(), budgetMillis / 1000);
+
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "gdms-warmup-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            tasks.add(pool.submit(() -> {
+                try {
+                    loadOrgList.run();
+                    orgListLoaded = true;
+                } catch (RuntimeException e) {
+                    log.warn("Warm-up: org list failed", e);
+                }
+            }));
+            for (int orgId : orgs) {
+                tasks.add(pool.submit(() -> {
+                    try {
+                        warmOrg.accept(orgId);
+                        warmed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.warn("Warm-up: org {} failed", orgId, e);
+                    }
+                }));
+            }
+            pool.shutdown();
+            if (!pool.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                // Only drop what never started: a running crawl is the org's shared first crawl
+                // (users may be waiting on it), so it is left to finish, not interrupted.
+                int dropped = 0;
+                for (Future<?> task : tasks) {
+                    if (pool.remove((Runnable) task)) {
+                        task.cancel(false);
+                        dropped++;
+                    }
+                }
+                skipped = dropped;
+                log.info("Warm-up: time budget used up, {} orgs left for first use", skipped);
+            }
+        } catch (InterruptedException e) {
+            pool.getQueue().clear();
+            Thread.currentThread().interrupt();
+        } finally {
+            finishedAt = System.currentTimeMillis();
+            phase = Phase.DONE;
+            log.info("Warm-up done: {} warmed, {} failed, {} skipped in {} ms",
+                    warmed.get(), failed.get(), skipped, finishedAt - startedAt);
+        }
+    }
+
+    public Progress progress() {
+        long start = startedAt;
+        long end = phase == Phase.DONE ? finishedAt : System.currentTimeMillis();
+        return new Progress(phase, orgListLoaded, total, warmed.get(), failed.get(), skipped,
+                start == 0 ? 0 : end - start, budgetMillis);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.backend.Service;
+
+import com.example.backend.model.DeviceReport;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The device report of one org snapshot, assembled once, with the secondary indexes behind the
+ * {@code /gdms/report} query parameters:
+ * <ul>
+ *   <li>an exact-value index (value → matching rows as a bitmap) per filterable column, so a
+ *       filter costs a few bitmap ORs/ANDs instead of a scan;</li>
+ *   <li>MACs (separators stripped) and device names in sorted order, so a prefix search is a
+ *       binary search plus a range walk;</li>
+ *   <li>row orders per sort spec, built on first use and reused, so a page is taken by walking
+ *       the order until the page is full.</li>
+ * </ul>
+ * Instances are immutable apart from the sort-order memo and are shared by all requests for the
+ * same snapshot version.
+ */
+public final class DeviceIndex {
+
+    /** Report columns by JSON name; filters, sort keys and projections all refer to these. */
+    static final Map<String, Function<DeviceReport, Object>> FIELDS;
+    static {
+        Map<String, Function<DeviceReport, Object>> f = new LinkedHashMap<>();
+        f.put("macAddress", DeviceReport::getMacAddress);
+        f.put("sn", DeviceReport::getSn);
+        f.put("deviceName", DeviceReport::getDeviceName);
+        f.put("siteName", DeviceReport::getSiteName);
+        f.put("deviceModel", DeviceReport::getDeviceModel);
+        f.put("firmwareVersion", DeviceReport::getFirmwareVersion);
+        f.put("status", DeviceReport::getStatus);
+        f.put("pushConfiguration", DeviceReport::getPushConfiguration);
+        f.put("lastConfigTime", DeviceReport::getLastConfigTime);
+        f.put("account1UserId", DeviceReport::getAccount1UserId);
+        f.put("account1SipServer", DeviceReport::getAccount1SipServer);
+        FIELDS = Collections.unmodifiableMap(f);
+    }
+
+    /** Columns with an exact-value index. */
+    static final List<String> FILTERS = List.of("status", "deviceModel", "firmwareVersion", "siteName", "pushConfiguration");
+
+    private static final int MAX_MEMOIZED_ORDERS = 32;
+
+    /**
+     * One report query. {@code filters}: column → accepted values (any of them, case-insensitive);
+     * columns are combined with AND. {@code prefix} matches the start of the MAC (with or without
+     * separators) or of the device name. {@code sort}: column names, {@code -} prefix = descending;
+     * empty keeps device order. {@code size} 0 = every matching row.
+     */
+    public record Query(Map<String, List<String>> filters, String prefix, List<String> sort, int page, int size) {
+
+        public Query {
+            filters = Map.copyOf(filters);
+            sort = List.copyOf(sort);
+            for (String column : filters.keySet()) {
+                if (!FILTERS.contains(column)) throw new IllegalArgumentException("Cannot filter on " + column);
+            }
+            for (String key : sort) {
+                if (!FIELDS.containsKey(key.startsWith("-") ? key.substring(1) : key)) {
+                    throw new IllegalArgumentException("Cannot sort on " + key);
+                }
+            }
+            if (page < 0 || size < 0) throw new IllegalArgumentException("page and size must be >= 0");
+        }
+    }
+
+    /** Rows of the requested page and the number of rows matching the query. */
+    public record Page(List<DeviceReport> rows, int total) {}
+
+    private final long version;
+    private final List<DeviceReport> rows;
+    private final Map<String, Map<String, BitSet>> postings = new HashMap<>();
+    private final String[] macKeys;
+    private final int[] macRows;
+    private final String[] nameKeys;
+    private final int[] nameRows;
+    private final Map<String, int[]> orders = new ConcurrentHashMap<>();
+
+    DeviceIndex(long version, List<DeviceReport> rows) {
+        this.version = version;
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+
+        for (String column : FILTERS) {
+            Function<DeviceReport, Object> get = FIELDS.get(column);
+            Map<String, BitSet> byValue = new HashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                byValue.computeIfAbsent(key(get.apply(rows.get(i))), k -> new BitSet()).set(i);
+            }
+            postings.put(column, byValue);
+        }
+
+        String[] macs = new String[rows.size()];
+        String[] names = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            macs[i] = macKey(rows.get(i).getMacAddress());
+            names[i] = key(rows.get(i).getDeviceName());
+        }
+        this.macRows = sortedBy(macs);
+        this.macKeys = permute(macs, macRows);
+        this.nameRows = sortedBy(names);
+        this.nameKeys = permute(names, nameRows);
+    }
+
+    long version() { return version; }
+
+    /** Every row in device order (the unfiltered report). */
+    public List<DeviceReport> rows() { return rows; }
+
+    public Page query(Query q) {
+        BitSet match = null;                                   // null = every row
+        for (Map.Entry<String, List<String>> f : q.filters().entrySet()) {
+            Map<String, BitSet> byValue = postings.get(f.getKey());
+            BitSet any = new BitSet();
+            for (String v : f.getValue()) {
+                BitSet b = byValue.get(key(v));
+                if (b != null) any.or(b);
+            }
+            match = and(match, any);
+        }
+        if (q.prefix() != null && !q.prefix().isBlank()) match = and(match, prefixMatches(q.prefix()));
+
+        int total = (match == null) ? rows.size() : match.cardinality();
+        long from = (long) q.page() * q.size();
+        long to = (q.size() == 0) ? total : Math.min(total, from + q.size());
+        if (from >= to) return new Page(List.of(), total);
+
+        int[] order = q.sort().isEmpty() ? null : order(q.sort());
+        List<DeviceReport> out = new ArrayList<>((int) (to - from));
+        int seen = 0;
+        for (int i = 0; i < rows.size() && seen < to; i++) {
+            int row = (order == null) ? i : order[i];
+            if (match != null && !match.get(row)) continue;
+            if (seen++ >= from) out.add(rows.get(row));
+        }
+        return new Page(out, total);
+    }
+
+    /** Rows reduced to the given columns (in the given order); throws on an unknown column. */
+    public static List<Map<String, Object>> project(List<DeviceReport> rows, List<String> fields) {
+        List<Function<DeviceReport, Object>> getters = new ArrayList<>(fields.size());
+        for (String f : fields) {
+            Function<DeviceReport, Object> get = FIELDS.get(f);
+            if (get == null) throw new IllegalArgumentException("Unknown field " + f);
+            getters.add(get);
+        }
+        List<Map<String, Object>> out = new ArrayList<>(rows.size());
+        for (DeviceReport r : rows) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) m.put(fields.get(i), getters.get(i).apply(r));
+            out.add(m);
+        }
+        return out;
+    }
+
+    // ----------------- internals -----------------
+
+    private BitSet prefixMatches(String prefix) {
+        BitSet out = new BitSet();
+        String mac = macKey(prefix);
+        if (!mac.isEmpty()) range(macKeys, macRows, mac, out);
+        range(nameKeys, nameRows, key(prefix), out);
+        return out;
+    }
+
+    private static void range(String[] keys, int[] rowsByKey, String prefix, BitSet out) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && keys[i].startsWith(prefix); i++) out.set(rowsByKey[i]);
+    }
+
+    /** First index whose key is >= {@code key} (Arrays.binarySearch may land on any of equal keys). */
+    private static int lowerBound(String[] keys, String key) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Row order for a sort spec; stable, so equal keys keep device order. */
+    private int[] order(List<String> sort) {
+        String spec = String.join(",", sort);
+        int[] cached = orders.get(spec);
+        if (cached != null) return cached;
+
+        Comparator<Integer> cmp = null;
+        for (String key : sort) {
+            boolean desc = key.startsWith("-");
+            Function<DeviceReport, Object> get = FIELDS.get(desc ? key.substring(1) : key);
+            Comparator<Integer> c = (a, b) -> compare(get.apply(rows.get(a)), get.apply(rows.get(b)));
+            if (desc) c = c.reversed();
+            cmp = (cmp == null) ? c : cmp.thenComparing(c);
+        }
+        Integer[] boxed = new Integer[rows.size()];
+        for (int i = 0; i < boxed.length; i++) boxed[i] = i;
+        Arrays.sort(boxed, cmp);                               // TimSort: stable
+        int[] order = new int[boxed.length];
+        for (int i = 0; i < order.length; i++) order[i] = boxed[i];
+        if (orders.size() < MAX_MEMOIZED_ORDERS) orders.put(spec, order);
+        return order;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b) {
+        if (a == null || b == null) return (a == null) ? (b == null ? 0 : -1) : 1;
+        if (a instanceof String s && b instanceof String t) return s.compareToIgnoreCase(t);
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static BitSet and(BitSet acc, BitSet next) {
+        if (acc == null) return next;
+        acc.and(next);
+        return acc;
+    }
+
+    private static String key(Object v) {
+        return (v == null) ? "" : String.valueOf(v).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Lower-case MAC without separators, so "00:0B:82" and "000b82" find the same devices. */
+    private static String macKey(String mac) {
+        if (mac == null) return "";
+        StringBuilder sb = new StringBuilder(mac.length());
+        for (int i = 0; i < mac.length(); i++) {
+            char c = mac.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static int[] sortedBy(String[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < boxed.length; i++) boxed[i] = i;
+        Arrays.sort(boxed, Comparator.comparing(i -> keys[i]));
+        int[] out = new int[boxed.length];
+        for (int i = 0; i < out.length; i++) out[i] = boxed[i];
+        return out;
+    }
+
+    private static String[] permute(String[] keys, int[] order) {
+        String[] out = new String[order.length];
+        for (int i = 0; i < order.length; i++) out[i] = keys[order[i]];
+        return out;
+    }
+}
@@ -1,37 +1,60 @@
 package com.example.backend.Service;
 
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.AdaptiveLimiter;
+import com.example.backend.gdms.CircuitBreaker;
+import com.example.backend.gdms.Coalescer;
+import com.example.backend.gdms.DeviceRow;
 import com.example.backend.gdms.GDMSAPI;
+import com.example.backend.gdms.SipAccountRow;
 import com.example.backend.model.DeviceReport;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class GDMSService {
 
     private final GDMSAPI client;
-
-    public GDMSService() {
-        this.client = new GDMSAPI(
-                "www.gdms.cloud",
-                "product",
-                "admin@1234",
-                "102993",
-                "snp2mDxueVyTC6k6bUC67TqtVeNx9MLg",
-                null,
-                120,
-                20,
-                true
-        );
-        client.startRefreshLoop(20, 120);
+    private final OrgSnapshotStore snapshots;
+    private final StatusCache statuses;
+    private final CacheManager cacheManager;
+    private final OrgUsage usage;
+    // Assembled device report + query indexes per org, rebuilt when the org's snapshot version moves
+    private final Cache<Integer, DeviceIndex> deviceIndexes = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .maximumSize(1000)
+            .build();
+
+    public GDMSService(GDMSAPI client, OrgSnapshotStore snapshots, StatusCache statuses, CacheManager cacheManager,
+                       OrgUsage usage) {
+        this.client = client;
+        this.snapshots = snapshots;
+        this.statuses = statuses;
+        this.cacheManager = cacheManager;
+        this.usage = usage;
     }
 
 
-    /** ✅ Only organization id + name */
-    @Cacheable("orgNames")
+    /** ✅ Only organization id + name (one load in flight; refreshed ahead of expiry) */
+    @Cacheable(value = "orgNames", sync = true)
     public List<Map<String, Object>> getOrgNames() {
+        return loadOrgNames();
+    }
+
+    /** Uncached org list; also the orgNames cache loader. */
+    public List<Map<String, Object>> loadOrgNames() {
         List<Map<String, Object>> orgs = client.listOrgsAll(1000);
         return orgs.stream()
                 .map(o -> Map.of(
@@ -42,151 +65,144 @@ public class GDMSService {
     }
 
     /**
-     * ✅ Device report (ALL rows, NO pagination, NO cache)
-     * Uses a BULK status refresh for the org to avoid N+1 calls.
+     * ✅ Device report (ALL rows, NO pagination)
+     * Built from the org's latest background snapshot, so the request never waits on GDMS
+     * (except the very first one for an org).
      */
-    @Cacheable(value = "deviceReports", key = "#orgId")
-    public List<DeviceReport> getDeviceReportByOrg(int orgId) {
-        // 1) Fetch devices for org
-        List<Map<String, Object>> devices = client.fetchDevicesForOrg(orgId, 5000);
-
-        // 2) Bulk refresh account status once for this org
-        List<Map<String, Object>> selected = List.of(
-                Map.of("id", orgId, "organization", "N/A")
-        );
-        client.fetchDeviceAccountStatusForSelectedOrgs(devices, selected);
-
-        // 3) Build a lookup: mac -> status row (from the refreshed payload)
-        Map<String, Map<String, Object>> statusRowByMac = new HashMap<>();
-        Map<String, Object> payload = client.getStatusPayload();
-
-        if (payload != null && payload.get("success") instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> successList = (List<Map<String, Object>>) payload.get("success");
-
-            for (Map<String, Object> row : successList) {
-                String mac = str(row.get("mac"));
-                if (!mac.isEmpty()) {
-                    statusRowByMac.put(mac, row);
-                }
-            }
-        }
+    public OrgReport<List<DeviceReport>> getDeviceReportByOrg(int orgId) {
+        return getDeviceReport(getSnapshot(orgId));
+    }
 
-        // 4) Build report list without per-device API calls
-        List<DeviceReport> reports = new ArrayList<>(devices.size());
+    /** The org's current snapshot, counted as a view of the org (callers can check its ETag before building a report). */
+    public OrgSnapshot getSnapshot(int orgId) {
+        usage.record(orgId);
+        return snapshots.get(orgId);
+    }
 
-        for (Map<String, Object> device : devices) {
-            String mac = str(device.get("mac"));
-            Map<String, Object> statusRow = statusRowByMac.get(mac);
-
-            DeviceReport report = new DeviceReport();
-            report.setMacAddress(mac);
-            report.setSn(str(device.get("sn")));
-            report.setDeviceName(str(device.get("deviceName")));
-            report.setSiteName(str(device.get("siteName")));
-            report.setDeviceModel(str(device.get("deviceType")));
-            report.setFirmwareVersion(str(device.get("firmwareVersion")));
-
-            Integer devStatus = asInt(device.get("status"));
-            Integer acctStatus = statusRow != null ? asInt(statusRow.get("accountStatus")) : null;
-            report.setStatus(devStatus != null ? devStatus : (acctStatus != null ? acctStatus : -1));
-
-            Integer isSync = coalesceInt(device.get("isSynchronized"), device.get("is_synchronized"));
-            report.setPushConfiguration(isSync != null ? isSync : 0);
-
-            report.setLastConfigTime(str(device.get("lastTime")));
-
-            // ✅ Take SIP accounts if present
-            if (statusRow != null && statusRow.get("sipAccountInfoList") instanceof List) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> sipAccounts =
-                        (List<Map<String, Object>>) statusRow.get("sipAccountInfoList");
-
-                if (!sipAccounts.isEmpty()) {
-                    Map<String, Object> acc1 = sipAccounts.get(0);
-                    report.setAccount1UserId(str(acc1.get("sipUserId")));
-                    report.setAccount1SipServer(str(acc1.get("sipServer")));
-                }
-            }
+    /**
+     * The org's snapshot if it already has one (counted as a view), else null without crawling;
+     * the caller then counts the view through {@link #getSnapshot} or {@link #streamDeviceReport}.
+     */
+    public OrgSnapshot peekSnapshot(int orgId) {
+        OrgSnapshot snapshot = snapshots.peek(orgId);
+        if (snapshot != null) usage.record(orgId);
+        return snapshot;
+    }
 
-            reports.add(report);
-        }
+    /**
+     * Device report for a streaming response. Cold org: crawled on this thread, each row passed to
+     * {@code sink} as soon as its device's status is known (completion order), and null returned.
+     * Otherwise the snapshot whose rows the caller should send. See {@link OrgSnapshotStore#getOrStream}.
+     */
+    public OrgSnapshot streamDeviceReport(int orgId, Consumer<DeviceReport> sink, BooleanSupplier stop) {
+        usage.record(orgId);
+        return snapshots.getOrStream(orgId, (device, status) -> sink.accept(deviceReport(device, status)), stop);
+    }
+
+    public OrgReport<List<DeviceReport>> getDeviceReport(OrgSnapshot snapshot) {
+        return OrgReport.of(snapshot, deviceIndex(snapshot).rows());
+    }
 
+    /** Filtered / sorted / paged device report, answered from the snapshot's indexes. */
+    public OrgReport<DeviceIndex.Page> queryDeviceReport(OrgSnapshot snapshot, DeviceIndex.Query query) {
+        return OrgReport.of(snapshot, deviceIndex(snapshot).query(query));
+    }
+
+    /** The index for exactly this snapshot: built once per version, shared by every request for it. */
+    DeviceIndex deviceIndex(OrgSnapshot snapshot) {
+        long version = snapshot.version();
+        DeviceIndex current = deviceIndexes.getIfPresent(snapshot.orgId());
+        if (current != null && current.version() == version) return current;
+        DeviceIndex latest = deviceIndexes.asMap().compute(snapshot.orgId(),
+                (orgId, old) -> old != null && old.version() >= version ? old : buildIndex(snapshot));
+        return latest.version() == version ? latest : buildIndex(snapshot);   // this request raced a refresh
+    }
+
+    private static DeviceIndex buildIndex(OrgSnapshot snapshot) {
+        return new DeviceIndex(snapshot.version(), assembleDeviceReport(snapshot.devices(), snapshot.statusByMac()));
+    }
+
+    /** Device rows + statuses → report rows (no I/O; also driven by the JMH benchmarks). */
+    static List<DeviceReport> assembleDeviceReport(List<DeviceRow> devices, Map<String, AccountStatus> statusByMac) {
+        List<DeviceReport> reports = new ArrayList<>(devices.size());
+        for (DeviceRow device : devices) reports.add(deviceReport(device, statusByMac.get(device.mac())));
         return reports;
     }
 
+    /** One report row; {@code status} may be null (no status known for the device). */
+    static DeviceReport deviceReport(DeviceRow device, AccountStatus status) {
+        DeviceReport report = new DeviceReport();
+        report.setMacAddress(str(device.mac()));
+        report.setSn(str(device.sn()));
+        report.setDeviceName(str(device.deviceName()));
+        report.setSiteName(str(device.siteName()));
+        report.setDeviceModel(str(device.deviceType()));
+        report.setFirmwareVersion(str(device.firmwareVersion()));
+
+        Integer acctStatus = status != null ? status.accountStatus() : null;
+        report.setStatus(device.status() != null ? device.status() : (acctStatus != null ? acctStatus : -1));
+        report.setPushConfiguration(device.isSynchronized() != null ? device.isSynchronized() : 0);
+        report.setLastConfigTime(str(device.lastTime()));
+
+        // ✅ Take SIP accounts if present
+        if (status != null && !status.sipAccounts().isEmpty()) {
+            AccountStatus.SipAccountInfo acc1 = status.sipAccounts().get(0);
+            report.setAccount1UserId(str(acc1.sipUserId()));
+            report.setAccount1SipServer(str(acc1.sipServer()));
+        }
+
+        return report;
+    }
+
     /**
-     * ✅ SIP report:
+     * ✅ SIP report (from the org snapshot):
      * - One row per SIP account (grouped by sipUserId)
      * - Status normalized (Active/Inactiv e/Abnormal)
      * - Multiple devices per SIP account collected as MAC1/MAC2/...
      * - MAC normalized (Unallocated if missing)
      */
-    @Cacheable(value = "sipReports", key = "#orgId")
-    public List<Map<String, String>> getSipReportByOrg(int orgId) {
-        // Step 1: fetch all SIP accounts
-        List<Map<String, Object>> sipAccounts = client.fetchSIPAccountsForOrg(orgId, 5000);
-
-        // Step 2: fetch all devices + status
-        List<Map<String, Object>> devices = client.fetchDevicesForOrg(orgId, 5000);
-        List<Map<String, Object>> selected = List.of(Map.of("id", orgId, "organization", "N/A"));
-        client.fetchDeviceAccountStatusForSelectedOrgs(devices, selected);
-
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> enrichedDevices =
-                (List<Map<String, Object>>) client.getStatusPayload().get("success");
-
-        // Build lookup: sipUserId -> list of device SIP entries
-        Map<String, List<Map<String, Object>>> sipToDevices = new HashMap<>();
-        if (enrichedDevices != null) {
-            for (Map<String, Object> device : enrichedDevices) {
-                String mac = normalizeMac(device.get("mac"));
-
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> sipList =
-                        (List<Map<String, Object>>) device.get("sipAccountInfoList");
-
-                if (sipList == null) continue;
-
-                for (Map<String, Object> sipAcc : sipList) {
-                    String sipUserId = str(sipAcc.get("sipUserId"));
-                    if (sipUserId.equals("—")) continue;
-
-                    Map<String, Object> entry = new HashMap<>();
-                    entry.put("account", sipAcc.get("account"));
-                    entry.put("mac", mac);
-                    entry.put("status", sipAcc.get("accountStatus"));
-                    sipToDevices.computeIfAbsent(sipUserId, k -> new ArrayList<>()).add(entry);
-                }
+    public OrgReport<List<Map<String, String>>> getSipReportByOrg(int orgId) {
+        return getSipReport(getSnapshot(orgId));
+    }
+
+    public OrgReport<List<Map<String, String>>> getSipReport(OrgSnapshot snapshot) {
+        // Same snapshot as the device report: SIP accounts, devices and statuses from one crawl
+        return OrgReport.of(snapshot, assembleSipReport(snapshot.sipAccounts(), snapshot.statusByMac()));
+    }
+
+    /** SIP account rows + device statuses → report rows (no I/O; also driven by the JMH benchmarks). */
+    static List<Map<String, String>> assembleSipReport(List<SipAccountRow> sipAccounts, Map<String, AccountStatus> statusByMac) {
+        // Build lookup: sipUserId -> [MAC on line 1, MAC on line 2]
+        Map<String, String[]> macsBySipUser = new HashMap<>();
+        statusByMac.forEach((rawMac, status) -> {
+            String mac = normalizeMac(rawMac);
+            for (AccountStatus.SipAccountInfo sipAcc : status.sipAccounts()) {
+                String sipUserId = str(sipAcc.sipUserId());
+                if (sipUserId.equals("—")) continue;
+
+                Integer line = sipAcc.account();
+                if (line == null || (line != 1 && line != 2)) continue;
+                macsBySipUser.computeIfAbsent(sipUserId, k -> new String[2])[line - 1] = mac;
             }
-        }
+        });
 
         // Step 3: build report rows for each SIP account
-        List<Map<String, String>> sipReports = new ArrayList<>();
+        List<Map<String, String>> sipReports = new ArrayList<>(sipAccounts.size());
 
-        for (Map<String, Object> acc : sipAccounts) {
+        for (SipAccountRow acc : sipAccounts) {
             Map<String, String> row = new LinkedHashMap<>();
-            String sipUserId = str(acc.get("sipUserId"));
+            String sipUserId = str(acc.sipUserId());
 
-            row.put("accountName", str(acc.get("accountName")));
-            row.put("displayName", str(acc.get("displayName")));
-            row.put("sipServer", str(acc.get("sipServer")));
+            row.put("accountName", str(acc.accountName()));
+            row.put("displayName", str(acc.displayName()));
+            row.put("sipServer", str(acc.sipServer()));
             row.put("sipUserId", sipUserId);
-            row.put("sipAccountActiveStatus", normalizeStatus(acc.get("status")));
-            row.put("MAC1 Address", "—");
-            row.put("MAC2 Address", "—");
+            row.put("sipAccountActiveStatus", normalizeStatus(acc.status()));
 
             // Enrich with device MACs if available
-            List<Map<String, Object>> deviceEntries = sipToDevices.getOrDefault(sipUserId, List.of());
-            for (Map<String, Object> d : deviceEntries) {
-                Integer accNum = asInt(d.get("account"));
-                String mac = normalizeMac(d.get("mac"));
-                if (accNum != null && accNum == 1) {
-                    row.put("MAC1 Address", mac);
-                } else if (accNum != null && accNum == 2) {
-                    row.put("MAC2 Address", mac);
-                }
-            }
+            String[] macs = macsBySipUser.get(sipUserId);
+            row.put("MAC1 Address", macs != null && macs[0] != null ? macs[0] : "—");
+            row.put("MAC2 Address", macs != null && macs[1] != null ? macs[1] : "—");
 
             sipReports.add(row);
         }
@@ -198,6 +214,50 @@ public class GDMSService {
 
 
 
+    /** Adaptive upstream concurrency state per GDMS endpoint. */
+    public Map<String, AdaptiveLimiter.State> getUpstreamLimits() {
+        return client.getLimiterState();
+    }
+
+    /** Circuit breaker state per GDMS endpoint. */
+    public Map<String, CircuitBreaker.Snapshot> getUpstreamCircuits() {
+        return client.getCircuitState();
+    }
+
+    /** Age and refresh state of each org snapshot. */
+    public Map<Integer, OrgSnapshotStore.State> getSnapshotState() {
+        return snapshots.state();
+    }
+
+    /** Hit/miss counts, load times and in-flight loads of one report cache. */
+    public record CacheStats(long hits, long misses, double hitRate, long loads, long loadFailures,
+                             double avgLoadMillis, long evictions, long size, int loadsInFlight) {}
+
+    /** Stats for every report cache, by cache name. */
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> out = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) continue;
+            AsyncCache<Object, Object> async = cache.getAsyncCache();
+            com.github.benmanes.caffeine.cache.stats.CacheStats s = async.synchronous().stats();
+            int inFlight = 0;
+            for (CompletableFuture<Object> f : async.asMap().values()) if (!f.isDone()) inFlight++;
+            out.put(name, new CacheStats(s.hitCount(), s.missCount(), s.hitRate(), s.loadCount(), s.loadFailureCount(),
+                    s.averageLoadPenalty() / 1_000_000.0, s.evictionCount(), async.synchronous().estimatedSize(), inFlight));
+        }
+        return out;
+    }
+
+    /** Per-MAC status cache: statuses reused vs. re-queried. */
+    public StatusCache.Stats getStatusCacheStats() {
+        return statuses.stats();
+    }
+
+    /** Status calls made upstream vs. saved by cross-request coalescing. */
+    public Coalescer.Stats getStatusCoalescing() {
+        return client.getStatusCoalescing();
+    }
+
     // ----------------- helpers -----------------
 
     private static String safeKey(Object o) {
@@ -210,27 +270,13 @@ public class GDMSService {
         return s.isEmpty() ? "—" : s;
     }
 
-    private static Integer asInt(Object o) {
-        if (o == null) return null;
-        try { return Integer.parseInt(String.valueOf(o).trim()); }
-        catch (Exception e) { return null; }
-    }
-
-    private static Integer coalesceInt(Object... vals) {
-        for (Object v : vals) {
-            Integer i = asInt(v);
-            if (i != null) return i;
-        }
-        return null;
-    }
-
-    private String normalizeStatus(Object statusVal) {
+    private static String normalizeStatus(Object statusVal) {
         if ("1".equals(String.valueOf(statusVal)) || "Up".equalsIgnoreCase(String.valueOf(statusVal))) return "Active";
         if ("0".equals(String.valueOf(statusVal)) || "Down".equalsIgnoreCase(String.valueOf(statusVal))) return "Inactive";
         return "Abnormal";
     }
 
-    private String normalizeMac(Object macVal) {
+    private static String normalizeMac(Object macVal) {
         if (macVal == null) return "Unallocated";
         String s = String.valueOf(macVal).trim();
         if (s.isEmpty() || "null".equalsIgnoreCase(s)) return "Unallocated";
@@ -0,0 +1,20 @@
+package com.example.backend.Service;
+
+/**
+ * Report rows together with the snapshot they were built from. Two reports with the same
+ * {@code version} come from the same crawl.
+ *
+ * @param version       {@link OrgSnapshot#version()} of the source snapshot
+ * @param takenAtMillis {@link OrgSnapshot#takenAtMillis()} of the source snapshot
+ */
+public record OrgReport<T>(T rows, long version, long takenAtMillis) {
+
+    static <T> OrgReport<T> of(OrgSnapshot snapshot, T rows) {
+        return new OrgReport<>(rows, snapshot.version(), snapshot.takenAtMillis());
+    }
+
+    /** Whole seconds since the source snapshot was taken (sent as X-Snapshot-Age). */
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - takenAtMillis) / 1000);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.gdms.SipAccountRow;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One org's devices, their account statuses and its SIP accounts, fetched together by the
+ * background refresher. The device and SIP reports are both built from the same snapshot, so
+ * they always agree with each other. Snapshots are immutable; a refresh replaces the whole
+ * instance with the next version.
+ *
+ * @param version       increases with every snapshot the store installs
+ * @param statusByMac   statuses keyed by MAC; devices whose status call failed are absent
+ * @param takenAtMillis wall-clock time the crawl finished
+ */
+public record OrgSnapshot(int orgId, long version, List<DeviceRow> devices, Map<String, AccountStatus> statusByMac,
+                          List<SipAccountRow> sipAccounts, long takenAtMillis) {
+
+    public OrgSnapshot {
+        devices = List.copyOf(devices);
+        statusByMac = Collections.unmodifiableMap(new LinkedHashMap<>(statusByMac));   // keeps device order
+        sipAccounts = List.copyOf(sipAccounts);
+    }
+
+    /** Same data, stamped with the version the store assigned it. */
+    OrgSnapshot withVersion(long version) {
+        return new OrgSnapshot(orgId, version, devices, statusByMac, sipAccounts, takenAtMillis);
+    }
+
+    /**
+     * Entity tag for anything rendered from this snapshot. The version is unique within a
+     * process (and survives warm restarts); the crawl time tells apart instances that happen to
+     * be at the same version. Weak, so gzip-compressed responses can carry it too.
+     */
+    public String etag() {
+        return "W/\"" + orgId + "-" + version + "-" + Long.toHexString(takenAtMillis) + "\"";
+    }
+
+    /** Whole seconds since the crawl finished. */
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - takenAtMillis) / 1000);
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.gdms.GDMSAPI;
+import com.example.backend.gdms.SipAccountRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps a per-org {@link OrgSnapshot} current in the background (stale-while-revalidate).
+ *
+ * The first read of an org crawls it in the caller's thread. From then on reads return the
+ * latest snapshot immediately, and each org is re-crawled on its own jittered timer so
+ * refreshes for many orgs don't line up. A read that finds a snapshot older than the refresh
+ * interval (timer behind, last crawl failed) also starts a refresh, without waiting for it.
+ * Failed refreshes keep the previous snapshot. Orgs nobody has read for {@code idleMillis}
+ * stop being refreshed and are dropped.
+ */
+@Component
+public class OrgSnapshotStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrgSnapshotStore.class);
+
+    /** Refresh state of one org, for the /gdms/snapshots endpoint. */
+    public record State(long version, long ageSeconds, int devices, int statuses, int sipAccounts,
+                        boolean refreshing, String lastError) {}
+
+    private static final class Slot {
+        volatile OrgSnapshot current;
+        volatile long lastReadMillis;
+        volatile String lastError;
+        CompletableFuture<OrgSnapshot> inFlight;   // guarded by the slot
+        ScheduledFuture<?> next;                   // guarded by the slot
+    }
+
+    /** Crawls one org, reporting each device's status as it arrives; gives up once {@code stop} is true. */
+    @FunctionalInterface
+    interface Loader {
+        OrgSnapshot load(int orgId, BiConsumer<DeviceRow, AccountStatus> onStatus, BooleanSupplier stop);
+    }
+
+    private static final BiConsumer<DeviceRow, AccountStatus> NO_LISTENER = (device, status) -> {};
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private final Loader loader;
+    private final long refreshMillis;
+    private final int jitterPercent;
+    private final long idleMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    @Autowired
+    public OrgSnapshotStore(
+            GDMSAPI client,
+            StatusCache statuses,
+            @Value("${gdms.snapshot.refresh-seconds:120}") long refreshSeconds,
+            @Value("${gdms.snapshot.jitter-percent:20}") int jitterPercent,
+            @Value("${gdms.snapshot.idle-minutes:30}") long idleMinutes,
+            @Value("${gdms.snapshot.refresh-threads:2}") int refreshThreads
+    ) {
+        this((orgId, onStatus, stop) -> crawl(client, statuses, orgId, onStatus, stop),
+                refreshSeconds * 1000, jitterPercent, idleMinutes * 60_000, refreshThreads);
+    }
+
+    OrgSnapshotStore(IntFunction<OrgSnapshot> loader, long refreshMillis, int jitterPercent, long idleMillis, int refreshThreads) {
+        this((orgId, onStatus, stop) -> loader.apply(orgId), refreshMillis, jitterPercent, idleMillis, refreshThreads);
+    }
+
+    OrgSnapshotStore(Loader loader, long refreshMillis, int jitterPercent, long idleMillis, int refreshThreads) {
+        this.loader = loader;
+        this.refreshMillis = Math.max(1, refreshMillis);
+        this.jitterPercent = Math.max(0, Math.min(jitterPercent, 90));
+        this.idleMillis = idleMillis;
+        this.scheduler = new ScheduledThreadPoolExecutor(Math.max(1, refreshThreads), r -> {
+            Thread t = new Thread(r, "gdms-snapshot-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Devices, then status calls for the devices whose cached status is stale; the SIP account
+     * list is fetched alongside (non-blocking) so it adds no time to the crawl.
+     */
+    static OrgSnapshot crawl(GDMSAPI client, StatusCache statuses, int orgId,
+                             BiConsumer<DeviceRow, AccountStatus> onStatus, BooleanSupplier stop) {
+        CompletableFuture<List<SipAccountRow>> sipAccounts = client.fetchSipAccountRowsForOrgAsync(orgId, 5000);
+        List<DeviceRow> devices = client.fetchDeviceRowsForOrg(orgId, 5000);
+        Map<String, AccountStatus> statusByMac = statuses.statusesFor(devices, onStatus, stop);
+        if (stop.getAsBoolean()) throw new CancellationException("Crawl of org " + orgId + " abandoned");
+        return new OrgSnapshot(orgId, 0, devices, statusByMac, await(sipAccounts), System.currentTimeMillis());
+    }
+
+    /** Latest snapshot for the org; only the very first read waits for a crawl. */
+    public OrgSnapshot get(int orgId) {
+        long now = System.currentTimeMillis();
+        Slot slot = slots.computeIfAbsent(orgId, id -> new Slot());
+        slot.lastReadMillis = now;
+
+        OrgSnapshot snap = slot.current;
+        if (snap == null) {
+            try {
+                return await(refresh(orgId, slot, Runnable::run));
+            } catch (CancellationException e) {     // joined a streaming crawl whose client went away
+                return get(orgId);
+            }
+        }
+        if (now - snap.takenAtMillis() >= refreshMillis) refresh(orgId, slot, scheduler);
+        return snap;
+    }
+
+    /** The org's snapshot if it has one (counted as a read, like {@link #get}); never starts a first crawl. */
+    public OrgSnapshot peek(int orgId) {
+        Slot slot = slots.get(orgId);
+        return (slot == null || slot.current == null) ? null : get(orgId);
+    }
+
+    /**
+     * {@link #get} for streaming responses. An org without a snapshot is crawled on the calling
+     * thread and each device is passed to {@code onStatus} as its status arrives, so rows can be
+     * sent before the crawl ends; the finished crawl becomes the org's snapshot as usual and null
+     * is returned. Otherwise (snapshot present, or another caller's first crawl finished first)
+     * the snapshot is returned and nothing was passed to {@code onStatus}. Once {@code stop}
+     * returns true the crawl is abandoned, nothing is kept and CancellationException is thrown.
+     */
+    public OrgSnapshot getOrStream(int orgId, BiConsumer<DeviceRow, AccountStatus> onStatus, BooleanSupplier stop) {
+        Slot slot = slots.computeIfAbsent(orgId, id -> new Slot());
+        slot.lastReadMillis = System.currentTimeMillis();
+        if (slot.current != null) return get(orgId);
+
+        CompletableFuture<OrgSnapshot> f, other;
+        synchronized (slot) {
+            other = slot.inFlight;
+            f = (other == null) ? slot.inFlight = new CompletableFuture<>() : null;
+        }
+        if (other != null) {
+            try {
+                return await(other);
+            } catch (CancellationException e) {     // joined another streaming crawl whose client went away
+                return getOrStream(orgId, onStatus, stop);
+            }
+        }
+        crawlInto(orgId, slot, f, onStatus, stop);
+        await(f);
+        return null;
+    }
+
+    /** Every org's current snapshot (for persisting). */
+    public List<OrgSnapshot> snapshots() {
+        List<OrgSnapshot> out = new ArrayList<>(slots.size());
+        for (Slot slot : slots.values()) {
+            OrgSnapshot s = slot.current;
+            if (s != null) out.add(s);
+        }
+        return out;
+    }
+
+    /** Highest version handed out so far; changes whenever any org's snapshot is replaced. */
+    public long latestVersion() {
+        return versions.get();
+    }
+
+    /**
+     * Installs snapshots saved by an earlier run. They are served as-is (stale) until their
+     * org's first refresh, which is started for every org within the next
+     * {@code min(refresh interval, 30 s)} so the restarted app doesn't crawl everything at once.
+     * Orgs that already have a snapshot are left alone.
+     */
+    public void restore(Collection<OrgSnapshot> saved) {
+        long now = System.currentTimeMillis();
+        long spread = Math.min(refreshMillis, 30_000);
+        for (OrgSnapshot s : saved) {
+            versions.accumulateAndGet(s.version(), Math::max);
+            Slot slot = new Slot();
+            slot.current = s;
+            slot.lastReadMillis = now;
+            if (slots.putIfAbsent(s.orgId(), slot) != null) continue;
+            synchronized (slot) {
+                scheduleAfter(s.orgId(), slot, ThreadLocalRandom.current().nextLong(spread + 1));
+            }
+        }
+    }
+
+    /** Per-org refresh state, ordered by org id. */
+    public Map<Integer, State> state() {
+        Map<Integer, State> out = new TreeMap<>();
+        slots.forEach((orgId, slot) -> {
+            OrgSnapshot s = slot.current;
+            boolean refreshing;
+            synchronized (slot) {
+                refreshing = slot.inFlight != null;
+            }
+            out.put(orgId, s == null
+                    ? new State(0, -1, 0, 0, 0, refreshing, slot.lastError)
+                    : new State(s.version(), s.ageSeconds(), s.devices().size(), s.statusByMac().size(),
+                            s.sipAccounts().size(), refreshing, slot.lastError));
+        });
+        return out;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // ----------------- refresh -----------------
+
+    /** Starts a crawl unless one is already running for this org; either way returns its future. */
+    private CompletableFuture<OrgSnapshot> refresh(int orgId, Slot slot, Executor executor) {
+        CompletableFuture<OrgSnapshot> f;
+        synchronized (slot) {
+            if (slot.inFlight != null) return slot.inFlight;
+            f = slot.inFlight = new CompletableFuture<>();
+        }
+        try {
+            executor.execute(() -> crawlInto(orgId, slot, f, NO_LISTENER, NEVER));
+        } catch (RejectedExecutionException e) {   // shutting down
+            finish(orgId, slot, f, null, e);
+        }
+        return f;
+    }
+
+    private void crawlInto(int orgId, Slot slot, CompletableFuture<OrgSnapshot> f,
+                           BiConsumer<DeviceRow, AccountStatus> onStatus, BooleanSupplier stop) {
+        try {
+            OrgSnapshot s = loader.load(orgId, onStatus, stop).withVersion(versions.incrementAndGet());
+            slot.current = s;
+            slot.lastError = null;
+            finish(orgId, slot, f, s, null);
+        } catch (CancellationException e) {        // streaming client went away
+            finish(orgId, slot, f, null, e);
+        } catch (RuntimeException | Error e) {
+            slot.lastError = e.getMessage();
+            log.warn("Snapshot refresh for org {} failed", orgId, e);
+            finish(orgId, slot, f, null, e);
+        }
+    }
+
+    private void finish(int orgId, Slot slot, CompletableFuture<OrgSnapshot> f, OrgSnapshot s, Throwable error) {
+        synchronized (slot) {
+            slot.inFlight = null;
+            if (slot.current == null) {
+                slots.remove(orgId, slot);          // never loaded: the caller gets the error, nothing to keep fresh
+            } else if (slots.get(orgId) == slot) {
+                scheduleNext(orgId, slot);
+            }
+        }
+        if (error == null) f.complete(s);
+        else f.completeExceptionally(error);
+    }
+
+    /** Re-arms the org's single timer one jittered interval out; called with the slot held. */
+    private void scheduleNext(int orgId, Slot slot) {
+        long spread = refreshMillis * jitterPercent / 100;
+        scheduleAfter(orgId, slot, refreshMillis + (spread > 0 ? ThreadLocalRandom.current().nextLong(-spread, spread + 1) : 0));
+    }
+
+    private void scheduleAfter(int orgId, Slot slot, long delay) {
+        if (slot.next != null) slot.next.cancel(false);
+        try {
+            slot.next = scheduler.schedule(() -> tick(orgId, slot), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            slot.next = null;                        // shutting down
+        }
+    }
+
+    private void tick(int orgId, Slot slot) {
+        if (System.currentTimeMillis() - slot.lastReadMillis > idleMillis) {
+            slots.remove(orgId, slot);
+            log.info("Org {} not read for {} min; snapshot dropped", orgId, idleMillis / 60_000);
+            return;
+        }
+        refresh(orgId, slot, Runnable::run);        // already on a refresher thread
+    }
+
+    private static <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof RuntimeException) throw (RuntimeException) c;
+            if (c instanceof Error) throw (Error) c;
+            throw e;
+        }
+    }
+}
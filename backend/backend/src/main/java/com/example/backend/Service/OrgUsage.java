@@ -0,0 +1,90 @@
+package com.example.backend.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often each org's reports are requested, kept across restarts so the startup warm-up
+ * can pick the "top N" orgs. Counts from the previous run are halved on load, so orgs that
+ * stop being used fall out of the top after a few deploys. The file is rewritten on shutdown.
+ */
+@Component
+public class OrgUsage implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrgUsage.class);
+
+    private final Path file;
+    private final ConcurrentHashMap<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public OrgUsage(@Value("${gdms.warmup.usage-file:org-usage.properties}") String file) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        load();
+    }
+
+    /** One report request for the org. */
+    public void record(int orgId) {
+        counts.computeIfAbsent(orgId, id -> new LongAdder()).increment();
+    }
+
+    /** The {@code n} most requested orgs, most requested first. */
+    public List<Integer> top(int n) {
+        return counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Integer, LongAdder> e) -> e.getValue().sum()).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(Math.max(0, n))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        save();
+    }
+
+    private void load() {
+        if (file == null || !Files.isRegularFile(file)) return;
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(in);
+        } catch (IOException e) {
+            log.warn("Could not read {}", file, e);
+            return;
+        }
+        for (String key : p.stringPropertyNames()) {
+            try {
+                long halved = Long.parseLong(p.getProperty(key).trim()) / 2;
+                if (halved > 0) counts.computeIfAbsent(Integer.valueOf(key.trim()), id -> new LongAdder()).add(halved);
+            } catch (NumberFormatException ignored) {
+                // hand-edited or truncated line; skip it
+            }
+        }
+    }
+
+    void save() {
+        if (file == null || counts.isEmpty()) return;
+        Properties p = new Properties();
+        counts.forEach((orgId, n) -> p.setProperty(String.valueOf(orgId), String.valueOf(n.sum())));
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(out, "GDMS report requests per org (used by the startup warm-up)");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write {}", file, e);
+        }
+    }
+}
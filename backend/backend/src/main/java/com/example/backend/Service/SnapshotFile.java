@@ -0,0 +1,231 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.gdms.SipAccountRow;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compact binary file holding the org list and every org snapshot, for warm restarts.
+ *
+ * Layout (big-endian): magic, format version, saved-at millis, the org list, then one record
+ * per org snapshot. Strings are a length (-1 = null) followed by UTF-8 bytes; nullable
+ * integers are a presence byte followed by the value. Loading maps the file read-only and
+ * decodes straight from the mapping, so even large inventories load in milliseconds.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x47444E53;   // "GDNS"
+    private static final int FORMAT = 1;
+
+    /** Contents of one file. */
+    record Contents(long savedAtMillis, List<Map<String, Object>> orgNames, List<OrgSnapshot> snapshots) {}
+
+    private SnapshotFile() {}
+
+    /** Writes to a temp file and renames it over {@code file}, so a crash never leaves half a file. */
+    static void write(Path file, List<Map<String, Object>> orgNames, Collection<OrgSnapshot> snapshots) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(System.currentTimeMillis());
+
+            out.writeInt(orgNames == null ? -1 : orgNames.size());
+            if (orgNames != null) {
+                for (Map<String, Object> org : orgNames) {
+                    out.writeInt(org.size());
+                    for (Map.Entry<String, Object> e : org.entrySet()) {
+                        writeString(out, e.getKey());
+                        writeScalar(out, e.getValue());
+                    }
+                }
+            }
+
+            out.writeInt(snapshots.size());
+            for (OrgSnapshot s : snapshots) writeSnapshot(out, s);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Reads a file written by {@link #write}; throws {@link IOException} if it isn't one. */
+    static Contents read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            try {
+                if (buf.getInt() != MAGIC) throw new IOException(file + " is not a GDMS snapshot file");
+                int format = buf.getInt();
+                if (format != FORMAT) throw new IOException(file + " has format " + format + ", expected " + FORMAT);
+                long savedAt = buf.getLong();
+
+                int orgCount = buf.getInt();
+                List<Map<String, Object>> orgNames = null;
+                if (orgCount >= 0) {
+                    orgNames = new ArrayList<>(orgCount);
+                    for (int i = 0; i < orgCount; i++) {
+                        int fields = buf.getInt();
+                        Map<String, Object> org = new LinkedHashMap<>();
+                        for (int f = 0; f < fields; f++) org.put(readString(buf), readScalar(buf));
+                        orgNames.add(Collections.unmodifiableMap(org));
+                    }
+                }
+
+                int count = buf.getInt();
+                List<OrgSnapshot> snapshots = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) snapshots.add(readSnapshot(buf));
+                return new Contents(savedAt, orgNames, snapshots);
+            } catch (RuntimeException e) {      // BufferUnderflowException etc.: truncated or corrupt
+                throw new IOException(file + " is truncated or corrupt", e);
+            }
+        }
+    }
+
+    // ----------------- snapshots -----------------
+
+    private static void writeSnapshot(DataOutputStream out, OrgSnapshot s) throws IOException {
+        out.writeInt(s.orgId());
+        out.writeLong(s.version());
+        out.writeLong(s.takenAtMillis());
+
+        out.writeInt(s.devices().size());
+        for (DeviceRow d : s.devices()) {
+            writeString(out, d.mac());
+            writeString(out, d.sn());
+            writeString(out, d.deviceName());
+            writeString(out, d.siteName());
+            writeString(out, d.deviceType());
+            writeString(out, d.firmwareVersion());
+            writeInt(out, d.status());
+            writeInt(out, d.isSynchronized());
+            writeString(out, d.lastTime());
+            out.writeInt(d.orgId());
+        }
+
+        out.writeInt(s.statusByMac().size());
+        for (Map.Entry<String, AccountStatus> e : s.statusByMac().entrySet()) {
+            AccountStatus a = e.getValue();
+            writeString(out, e.getKey());
+            writeInt(out, a.accountStatus());
+            writeInt(out, a.dnd());
+            writeString(out, a.syncFailureMsg());
+            out.writeInt(a.sipAccounts().size());
+            for (AccountStatus.SipAccountInfo info : a.sipAccounts()) {
+                writeInt(out, info.account());
+                writeString(out, info.accountStatus());
+                writeString(out, info.sipUserId());
+                writeString(out, info.sipServer());
+                writeString(out, info.serverName());
+            }
+        }
+
+        out.writeInt(s.sipAccounts().size());
+        for (SipAccountRow r : s.sipAccounts()) {
+            out.writeLong(r.id());
+            writeString(out, r.orgId());
+            writeString(out, r.sipUserId());
+            writeString(out, r.accountName());
+            writeString(out, r.displayName());
+            writeString(out, r.sipServer());
+            writeString(out, r.serverName());
+            writeString(out, r.status());
+            writeString(out, r.modifyTime());
+        }
+    }
+
+    private static OrgSnapshot readSnapshot(ByteBuffer buf) {
+        int orgId = buf.getInt();
+        long version = buf.getLong();
+        long takenAt = buf.getLong();
+
+        int n = buf.getInt();
+        List<DeviceRow> devices = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            devices.add(new DeviceRow(readString(buf), readString(buf), readString(buf), readString(buf),
+                    readString(buf), readString(buf), readInt(buf), readInt(buf), readString(buf), buf.getInt()));
+        }
+
+        n = buf.getInt();
+        Map<String, AccountStatus> statusByMac = new LinkedHashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            String mac = readString(buf);
+            Integer accountStatus = readInt(buf);
+            Integer dnd = readInt(buf);
+            String syncFailureMsg = readString(buf);
+            int lines = buf.getInt();
+            List<AccountStatus.SipAccountInfo> infos = new ArrayList<>(lines);
+            for (int l = 0; l < lines; l++) {
+                infos.add(new AccountStatus.SipAccountInfo(readInt(buf), readString(buf), readString(buf),
+                        readString(buf), readString(buf)));
+            }
+            statusByMac.put(mac, new AccountStatus(accountStatus, dnd, syncFailureMsg, List.copyOf(infos)));
+        }
+
+        n = buf.getInt();
+        List<SipAccountRow> sipAccounts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            sipAccounts.add(new SipAccountRow(buf.getLong(), readString(buf), readString(buf), readString(buf),
+                    readString(buf), readString(buf), readString(buf), readString(buf), readString(buf)));
+        }
+        return new OrgSnapshot(orgId, version, devices, statusByMac, sipAccounts, takenAt);
+    }
+
+    // ----------------- scalars -----------------
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) { out.writeInt(-1); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInt(DataOutputStream out, Integer v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeInt(v);
+    }
+
+    private static Integer readInt(ByteBuffer buf) {
+        return buf.get() != 0 ? buf.getInt() : null;
+    }
+
+    /** Org list values: null, Integer, Long, Double, Boolean or (anything else) text. */
+    private static void writeScalar(DataOutputStream out, Object v) throws IOException {
+        if (v == null) { out.writeByte(0); }
+        else if (v instanceof Integer i) { out.writeByte(1); out.writeInt(i); }
+        else if (v instanceof Long l) { out.writeByte(2); out.writeLong(l); }
+        else if (v instanceof Double d) { out.writeByte(3); out.writeDouble(d); }
+        else if (v instanceof Boolean b) { out.writeByte(4); out.writeBoolean(b); }
+        else { out.writeByte(5); writeString(out, String.valueOf(v)); }
+    }
+
+    private static Object readScalar(ByteBuffer buf) {
+        byte tag = buf.get();
+        switch (tag) {
+            case 0: return null;
+            case 1: return buf.getInt();
+            case 2: return buf.getLong();
+            case 3: return buf.getDouble();
+            case 4: return buf.get() != 0;
+            case 5: return readString(buf);
+            default: throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+}
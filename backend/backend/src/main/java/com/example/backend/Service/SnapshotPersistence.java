@@ -0,0 +1,131 @@
+package com.example.backend.Service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm restarts: the org list and every org snapshot are saved to a {@link SnapshotFile}
+ * periodically (when something changed) and on shutdown, and loaded back when the app starts.
+ * Restored data is served as stale until the background refreshes replace it, so the first
+ * views after a restart don't wait for a GDMS crawl.
+ */
+@Component
+public class SnapshotPersistence implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotPersistence.class);
+
+    private final OrgSnapshotStore store;
+    private final CacheManager cacheManager;
+    private final Path file;
+    private final ScheduledExecutorService saver;
+
+    private volatile long savedVersion = -1;
+    private volatile Object savedOrgNames;
+    private volatile boolean orgNamesRestored;
+
+    public SnapshotPersistence(
+            OrgSnapshotStore store,
+            CacheManager cacheManager,
+            @Value("${gdms.snapshot.file:gdms-snapshots.bin}") String file,
+            @Value("${gdms.snapshot.persist-seconds:300}") long persistSeconds
+    ) {
+        this.store = store;
+        this.cacheManager = cacheManager;
+        this.file = file.isBlank() ? null : Path.of(file);
+        if (this.file == null) {
+            this.saver = null;
+            return;
+        }
+        load();
+        this.saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gdms-snapshot-save");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(10, persistSeconds);
+        this.saver.scheduleWithFixedDelay(this::saveIfChanged, period, period, TimeUnit.SECONDS);
+    }
+
+    /** A restored org list is reloaded in the background once the app is up. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!orgNamesRestored || !(orgNamesCache() instanceof CaffeineCache cache)) return;
+        if (cache.getAsyncCache() instanceof AsyncLoadingCache<Object, Object> loading) {
+            loading.synchronous().refresh(SimpleKey.EMPTY);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (saver == null) return;
+        saver.shutdownNow();
+        saveIfChanged();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) return;
+        long start = System.nanoTime();
+        try {
+            SnapshotFile.Contents c = SnapshotFile.read(file);
+            store.restore(c.snapshots());
+            Cache orgNames = orgNamesCache();
+            if (c.orgNames() != null && orgNames != null) {
+                orgNames.put(SimpleKey.EMPTY, c.orgNames());
+                savedOrgNames = c.orgNames();
+                orgNamesRestored = true;
+            }
+            savedVersion = store.latestVersion();
+            log.info("Restored {} org snapshots from {} in {} ms (saved {}s ago)", c.snapshots().size(), file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), (System.currentTimeMillis() - c.savedAtMillis()) / 1000);
+        } catch (IOException e) {
+            log.warn("Ignoring {}", file, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized void saveIfChanged() {
+        Object names = currentOrgNames();
+        long version = store.latestVersion();
+        if (version == savedVersion && names == savedOrgNames) return;
+
+        List<OrgSnapshot> snapshots = store.snapshots();
+        if (snapshots.isEmpty() && names == null) return;
+        try {
+            SnapshotFile.write(file, (List<Map<String, Object>>) names, snapshots);
+            savedVersion = version;
+            savedOrgNames = names;
+        } catch (IOException e) {
+            log.warn("Could not save snapshots to {}", file, e);
+        }
+    }
+
+    /** The cached org list, read without counting as a hit or triggering a refresh. */
+    private Object currentOrgNames() {
+        if (!(orgNamesCache() instanceof CaffeineCache cache)) return null;
+        CompletableFuture<Object> f = cache.getAsyncCache().asMap().get(SimpleKey.EMPTY);
+        return f != null && f.isDone() && !f.isCompletedExceptionally() ? f.join() : null;
+    }
+
+    private Cache orgNamesCache() {
+        return cacheManager.getCache("orgNames");
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.gdms.GDMSAPI;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Device account statuses cached per MAC, independently of the device lists they came from.
+ *
+ * A crawl asks GDMS only for the MACs that have no live entry, or whose {@code lastTime} in
+ * the fresh device list differs from the one recorded with the cached status (the device
+ * checked in or was reconfigured since). Each entry lives {@code ttl} ± 20% so the statuses of
+ * one org, written by one crawl, don't all expire on the same refresh. If re-querying a MAC
+ * fails, its previous status is served until the entry expires.
+ */
+@Component
+public class StatusCache implements MeterBinder {
+
+    /** Counters since startup: statuses reused, fetched because missing/expired, or because lastTime moved. */
+    public record Stats(long reused, long missing, long changed, long size) {}
+
+    private record Entry(AccountStatus status, String lastTime) {}
+
+    /** Queries GDMS for a batch of devices, reporting each one as it completes. */
+    @FunctionalInterface
+    interface Fetcher {
+        Map<String, AccountStatus> fetch(List<DeviceRow> devices, BiConsumer<DeviceRow, AccountStatus> onStatus,
+                                         BooleanSupplier stop);
+    }
+
+    private final Fetcher fetcher;
+    private final Cache<String, Entry> cache;
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+
+    @Autowired
+    public StatusCache(
+            GDMSAPI client,
+            @Value("${gdms.status-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${gdms.status-cache.max-size:50000}") long maxSize
+    ) {
+        this((devices, onStatus, stop) -> client.fetchAccountStatuses(devices, onStatus, stop).byMac(),
+                ttlSeconds * 1_000_000_000L, maxSize, Ticker.systemTicker());
+    }
+
+    StatusCache(Function<List<DeviceRow>, Map<String, AccountStatus>> fetcher, long ttlNanos, long maxSize, Ticker ticker) {
+        this((devices, onStatus, stop) -> {
+            Map<String, AccountStatus> found = fetcher.apply(devices);
+            for (DeviceRow d : devices) onStatus.accept(d, found.get(d.mac()));
+            return found;
+        }, ttlNanos, maxSize, ticker);
+    }
+
+    StatusCache(Fetcher fetcher, long ttlNanos, long maxSize, Ticker ticker) {
+        this.fetcher = fetcher;
+        long spread = ttlNanos / 5;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String mac, Entry e, long now) {
+                        return ttlNanos + (spread > 0 ? ThreadLocalRandom.current().nextLong(-spread, spread + 1) : 0);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String mac, Entry e, long now, long remaining) {
+                        return expireAfterCreate(mac, e, now);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String mac, Entry e, long now, long remaining) {
+                        return remaining;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /** Caffeine hit/miss/eviction metrics as {@code cache.*{cache="gdmsStatuses"}}. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "gdmsStatuses");
+    }
+
+    /** Statuses for the devices in device order; devices with no status (ever) are absent. */
+    public Map<String, AccountStatus> statusesFor(List<DeviceRow> devices) {
+        return statusesFor(devices, (device, status) -> {}, () -> false);
+    }
+
+    /**
+     * {@link #statusesFor(List)} that also reports every device to {@code onStatus} with the
+     * status it will have in the result (null = none): cached ones first, then the re-queried
+     * ones as their calls complete. Once {@code stop} returns true no further calls are started.
+     */
+    public Map<String, AccountStatus> statusesFor(List<DeviceRow> devices, BiConsumer<DeviceRow, AccountStatus> onStatus,
+                                                  BooleanSupplier stop) {
+        List<String> macs = new ArrayList<>(devices.size());
+        for (DeviceRow d : devices) if (d.mac() != null && !d.mac().isBlank()) macs.add(d.mac());
+        Map<String, Entry> cached = cache.getAllPresent(macs);
+
+        List<DeviceRow> stale = new ArrayList<>();
+        for (DeviceRow d : devices) {
+            if (d.mac() == null || d.mac().isBlank()) continue;
+            Entry e = cached.get(d.mac());
+            if (e == null) missing.incrementAndGet();
+            else if (!Objects.equals(e.lastTime(), d.lastTime())) changed.incrementAndGet();
+            else { reused.incrementAndGet(); onStatus.accept(d, e.status()); continue; }
+            stale.add(d);
+        }
+        for (DeviceRow d : devices) if (d.mac() == null || d.mac().isBlank()) onStatus.accept(d, null);
+
+        Map<String, AccountStatus> fresh = stale.isEmpty() ? Map.of() : fetcher.fetch(stale, (d, s) -> {
+            Entry e = cached.get(d.mac());            // a failed re-query keeps the old status
+            onStatus.accept(d, s != null ? s : (e != null ? e.status() : null));
+        }, stop);
+        for (DeviceRow d : stale) {
+            AccountStatus s = fresh.get(d.mac());
+            if (s != null) cache.put(d.mac(), new Entry(s, d.lastTime()));
+        }
+
+        Map<String, AccountStatus> byMac = new LinkedHashMap<>();
+        for (DeviceRow d : devices) {
+            if (d.mac() == null) continue;
+            AccountStatus s = fresh.get(d.mac());
+            if (s == null) {
+                Entry e = cached.get(d.mac());      // reused, or re-query failed: keep what we had
+                if (e != null) s = e.status();
+            }
+            if (s != null) byMac.put(d.mac(), s);
+        }
+        return byMac;
+    }
+
+    public Stats stats() {
+        return new Stats(reused.get(), missing.get(), changed.get(), cache.estimatedSize());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.backend.gdms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** The {@code data} object of {@code /device/account/status} for one MAC. */
+public record AccountStatus(
+        Integer accountStatus,
+        Integer dnd,
+        String syncFailureMsg,
+        List<SipAccountInfo> sipAccounts
+) {
+
+    /** One line of {@code sipAccountInfoList}: which SIP account sits on which line of the phone. */
+    public record SipAccountInfo(
+            Integer account,
+            String accountStatus,      // "Up" / "Down" as reported by GDMS
+            String sipUserId,
+            String sipServer,
+            String serverName
+    ) {
+
+        static SipAccountInfo read(JsonReader r) {
+            if (r.nextNull()) return null;
+            Integer account = null;
+            String accountStatus = null, sipUserId = null, sipServer = null, serverName = null;
+            r.beginObject();
+            for (String k; (k = r.nextName()) != null; ) {
+                switch (k) {
+                    case "account": account = r.nextIntOrNull(); break;
+                    case "accountStatus": accountStatus = r.nextString(); break;
+                    case "sipUserId": sipUserId = r.nextString(); break;
+                    case "sipServer": sipServer = r.nextString(); break;
+                    case "serverName": serverName = r.nextString(); break;
+                    default: r.skipValue();
+                }
+            }
+            return new SipAccountInfo(account, accountStatus, sipUserId, sipServer, serverName);
+        }
+    }
+
+    /** Binder for the {@code data} value (null when GDMS sends none). */
+    static AccountStatus read(JsonReader r) {
+        if (r.nextNull()) return null;
+        Integer accountStatus = null, dnd = null;
+        String syncFailureMsg = null;
+        List<SipAccountInfo> sipAccounts = List.of();
+        r.beginObject();
+        for (String k; (k = r.nextName()) != null; ) {
+            switch (k) {
+                case "accountStatus": accountStatus = r.nextIntOrNull(); break;
+                case "dnd": dnd = r.nextIntOrNull(); break;
+                case "syncFailureMsg": syncFailureMsg = r.nextString(); break;
+                case "sipAccountInfoList": {
+                    if (r.nextNull()) break;
+                    List<SipAccountInfo> list = new ArrayList<>(2);
+                    r.beginArray();
+                    while (r.nextElement()) {
+                        SipAccountInfo info = SipAccountInfo.read(r);
+                        if (info != null) list.add(info);
+                    }
+                    sipAccounts = List.copyOf(list);
+                    break;
+                }
+                default: r.skipValue();
+            }
+        }
+        return new AccountStatus(accountStatus, dnd, syncFailureMsg, sipAccounts);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.backend.gdms;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Per-endpoint adaptive concurrency limit for outbound GDMS calls (AIMD with a latency gradient).
+ *
+ * Every endpoint ({@code /device/list}, {@code /device/account/status}, ...) has its own limit.
+ * A call must hold a {@link Permit} while it is in flight; callers beyond the limit queue up.
+ * Each completed call is a sample:
+ * <ul>
+ *   <li>success while the short-term latency stays within {@code tolerance} × the long-term
+ *       latency, and the limit is actually being used → additive increase (about +1 per window);</li>
+ *   <li>failure (transport error, non-200, retCode != 0) or short-term latency rising above the
+ *       tolerance → multiplicative decrease, at most once per observed round trip so a burst of
+ *       simultaneous failures counts as one congestion signal.</li>
+ * </ul>
+ */
+public final class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final double SHORT_ALPHA = 0.2;    // EWMA weight, recent latency
+    private static final double LONG_ALPHA = 0.02;    // EWMA weight, baseline latency
+    private static final long MAX_WAIT_MILLIS = 60_000;  // blocking callers give up after this
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final ConcurrentHashMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.initialLimit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+    }
+
+    /** The limit for one endpoint, created at {@code initialLimit} on first use. */
+    public Limit forEndpoint(String endpoint) {
+        return limits.computeIfAbsent(endpoint, Limit::new);
+    }
+
+    /** Point-in-time state of every endpoint seen so far, keyed by endpoint. */
+    public Map<String, State> snapshot() {
+        Map<String, State> out = new TreeMap<>();
+        limits.forEach((k, v) -> out.put(k, v.state()));
+        return out;
+    }
+
+    /** Inspection view of one endpoint's limit. Latencies are in milliseconds. */
+    public record State(
+            String endpoint,
+            int limit,
+            int inFlight,
+            int queued,
+            double recentLatencyMs,
+            double baselineLatencyMs,
+            long successes,
+            long failures,
+            long decreases
+    ) {}
+
+    public final class Limit {
+        private final String endpoint;
+        private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+        private double limit = initialLimit;
+        private int inFlight;
+        private double shortRttNanos;
+        private double longRttNanos;
+        private long lastDecreaseNanos;
+        private long successes;
+        private long failures;
+        private long decreases;
+
+        private Limit(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /** Permit as soon as the endpoint is under its limit; queued (FIFO) otherwise. */
+        public CompletableFuture<Permit> acquireAsync() {
+            CompletableFuture<Permit> f = new CompletableFuture<>();
+            boolean granted;
+            synchronized (this) {
+                granted = inFlight < currentLimit() && waiters.isEmpty();
+                if (granted) inFlight++;
+                else waiters.addLast(f);
+            }
+            if (granted) f.complete(new Permit(this));
+            return f;
+        }
+
+        /** Blocking {@link #acquireAsync()}, waiting at most a minute. */
+        public Permit acquire() {
+            return acquire(MAX_WAIT_MILLIS);
+        }
+
+        /**
+         * Blocking {@link #acquireAsync()}. On timeout or interrupt the caller leaves the queue and
+         * gets an IllegalStateException (interrupt flag kept).
+         */
+        public Permit acquire(long maxWaitMillis) {
+            CompletableFuture<Permit> f = acquireAsync();
+            try {
+                return f.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                Permit granted = giveUp(f);
+                if (granted != null) return granted;      // granted just as the wait ran out
+                throw new IllegalStateException("No " + endpoint + " permit within " + maxWaitMillis + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Permit granted = giveUp(f);
+                if (granted != null) granted.release();
+                throw new IllegalStateException("Interrupted waiting for a " + endpoint + " permit", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Limiter wait failed for " + endpoint, e.getCause());
+            }
+        }
+
+        /** Leaves the queue; returns the permit instead if it was already handed over. */
+        private Permit giveUp(CompletableFuture<Permit> f) {
+            synchronized (this) {
+                if (waiters.remove(f)) {
+                    f.cancel(false);
+                    return null;
+                }
+            }
+            return f.join();                               // completed outside the lock, right after
+        }
+
+        private int currentLimit() {
+            return (int) limit;
+        }
+
+        private void onComplete(boolean ok, long rttNanos) {
+            List<CompletableFuture<Permit>> wake = new ArrayList<>(2);
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (rttNanos >= 0) sample(ok, rttNanos, now);
+                inFlight--;
+                while (!waiters.isEmpty() && inFlight < currentLimit()) {
+                    inFlight++;
+                    wake.add(waiters.pollFirst());
+                }
+            }
+            // complete outside the lock: continuations may run inline
+            for (CompletableFuture<Permit> w : wake) w.complete(new Permit(this));
+        }
+
+        private void sample(boolean ok, long rttNanos, long now) {
+            if (shortRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+            } else {
+                shortRttNanos += SHORT_ALPHA * (rttNanos - shortRttNanos);
+                longRttNanos += LONG_ALPHA * (rttNanos - longRttNanos);
+            }
+
+            boolean congested = !ok || shortRttNanos > LATENCY_TOLERANCE * longRttNanos;
+            if (ok) successes++; else failures++;
+
+            if (congested) {
+                if (now - lastDecreaseNanos >= (long) shortRttNanos) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                    decreases++;
+                }
+            } else if (inFlight >= limit / 2) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        synchronized State state() {
+            return new State(endpoint, currentLimit(), inFlight, waiters.size(),
+                    shortRttNanos / 1_000_000.0, longRttNanos / 1_000_000.0,
+                    successes, failures, decreases);
+        }
+    }
+
+    /** One in-flight call. Exactly one of {@link #success()}, {@link #failure()}, {@link #release()} counts. */
+    public static final class Permit {
+        private final Limit owner;
+        private final long startNanos = System.nanoTime();
+        private boolean done;
+
+        private Permit(Limit owner) {
+            this.owner = owner;
+        }
+
+        /** Healthy response; contributes its latency to the limit. */
+        public void success() { finish(true, System.nanoTime() - startNanos); }
+
+        /** Upstream error or bad response; counts as a congestion signal. */
+        public void failure() { finish(false, System.nanoTime() - startNanos); }
+
+        /** Give the slot back without a sample (e.g. the call never reached GDMS). */
+        public void release() { finish(true, -1); }
+
+        private void finish(boolean ok, long rttNanos) {
+            synchronized (this) {
+                if (done) return;
+                done = true;
+            }
+            owner.onComplete(ok, rttNanos);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.backend.gdms;
+
+import java.util.Collection;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Long-lived engine for fanning blocking GDMS calls out over many items.
+ *
+ * One instance is shared by every caller, so the concurrency cap is global: two dashboard users
+ * loading reports at the same time share the same {@code maxConcurrency} upstream slots instead of
+ * each getting their own pool. Tasks run on virtual threads when the JDK provides them (21+),
+ * otherwise on a pool of daemon platform threads sized to the cap.
+ */
+final class BoundedFanOut implements AutoCloseable {
+
+    private final String name;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+    private int callers;                    // forEach calls running; guarded by this
+    private boolean closing;                // guarded by this
+
+    BoundedFanOut(String name, int maxConcurrency) {
+        this.name = name;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+        ExecutorService vt = newVirtualThreadExecutor();
+        this.virtualThreads = vt != null;
+        this.executor = (vt != null) ? vt : newPlatformExecutor(name, this.maxConcurrency);
+    }
+
+    int maxConcurrency() { return maxConcurrency; }
+    boolean usesVirtualThreads() { return virtualThreads; }
+    int inFlight() { return maxConcurrency - permits.availablePermits(); }
+    int waiting() { return permits.getQueueLength(); }
+
+    /**
+     * Run {@code task} for every item with at most {@link #maxConcurrency()} running at once
+     * (across all callers) and block until every submitted task has finished.
+     * The first exception thrown by a task is rethrown after the others have completed.
+     * Throws RejectedExecutionException once the fan-out is closing.
+     */
+    <T> void forEach(Collection<? extends T> items, Consumer<? super T> task) {
+        forEach(items, task, () -> false);
+    }
+
+    /**
+     * {@link #forEach(Collection, Consumer)} that stops submitting items once {@code stop} returns
+     * true (checked before each item); tasks already running are still waited for.
+     */
+    <T> void forEach(Collection<? extends T> items, Consumer<? super T> task, BooleanSupplier stop) {
+        if (items.isEmpty()) return;
+        enter();
+        try {
+            run(items, task, stop);
+        } finally {
+            exit();
+        }
+    }
+
+    private <T> void run(Collection<? extends T> items, Consumer<? super T> task, BooleanSupplier stop) {
+        CountDownLatch done = new CountDownLatch(items.size());
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        RejectedExecutionException rejected = null;
+        int submitted = 0;
+        try {
+            for (T item : items) {
+                if (stop.getAsBoolean()) break;
+                permits.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.accept(item);
+                        } catch (Throwable t) {
+                            firstFailure.compareAndSet(null, t);
+                        } finally {
+                            permits.release();
+                            done.countDown();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    rejected = e;
+                    break;
+                }
+                submitted++;
+            }
+            for (int i = submitted; i < items.size(); i++) done.countDown();   // never submitted
+            done.await();                           // also before rethrowing a rejection: no task outlives the call
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted after submitting " + submitted + "/" + items.size() + " tasks", e);
+        }
+        if (rejected != null) throw rejected;
+
+        Throwable t = firstFailure.get();
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        if (t != null) throw new RuntimeException(t);
+    }
+
+    /**
+     * Stop accepting work: later {@code forEach} calls are refused at once. Calls already running
+     * still submit and finish all their items; the executor shuts down when the last of them returns.
+     */
+    @Override
+    public synchronized void close() {
+        closing = true;
+        if (callers == 0) executor.shutdown();
+    }
+
+    private synchronized void enter() {
+        if (closing) throw new RejectedExecutionException("Fan-out " + name + " is closed");
+        callers++;
+    }
+
+    private synchronized void exit() {
+        if (--callers == 0 && closing) executor.shutdown();
+    }
+
+    // ---- Executors ----
+
+    /** {@code Executors.newVirtualThreadPerTaskExecutor()} when running on JDK 21+, else null. */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(String name, int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, name);
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
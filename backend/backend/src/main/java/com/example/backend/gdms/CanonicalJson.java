@@ -0,0 +1,225 @@
+package com.example.backend.gdms;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Canonical JSON (object keys sorted, no whitespace) written straight into a per-thread UTF-8
+ * byte buffer. This is the form GDMS signs, so the same bytes feed the body hash and the
+ * request body publisher.
+ *
+ * Maps whose keys already iterate in sorted order (TreeMaps, or LinkedHashMaps built in key
+ * order) are written as-is; others have just their keys sorted, never the whole map copied.
+ * Output matches the previous StringBuilder serializer byte for byte.
+ */
+final class CanonicalJson {
+
+    private static final int INITIAL = 1024;
+    private static final int RETAIN_LIMIT = 64 * 1024;   // larger buffers are dropped after use
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<CanonicalJson> LOCAL = ThreadLocal.withInitial(CanonicalJson::new);
+
+    private byte[] buf = new byte[INITIAL];
+    private int len;
+    private boolean busy;                                // guards against re-entrant use on one thread
+
+    private CanonicalJson() {}
+
+    /** Canonical JSON bytes for {@code v}, as an exact-size array the caller owns. */
+    static byte[] toBytes(Object v) {
+        CanonicalJson w = acquire();
+        try {
+            w.value(v);
+            return Arrays.copyOf(w.buf, w.len);
+        } finally {
+            w.release();
+        }
+    }
+
+    /** Canonical JSON text for {@code v} (for logs and file dumps). */
+    static String toJson(Object v) {
+        CanonicalJson w = acquire();
+        try {
+            w.value(v);
+            return new String(w.buf, 0, w.len, StandardCharsets.UTF_8);
+        } finally {
+            w.release();
+        }
+    }
+
+    private static CanonicalJson acquire() {
+        CanonicalJson w = LOCAL.get();
+        if (w.busy) w = new CanonicalJson();   // e.g. a record accessor that serializes; rare
+        w.busy = true;
+        w.len = 0;
+        return w;
+    }
+
+    private void release() {
+        busy = false;
+        if (buf.length > RETAIN_LIMIT) buf = new byte[INITIAL];
+    }
+
+    // ---------------------------------------------------------------- values
+
+    private void value(Object v) {
+        if (v == null) { ascii("null"); return; }
+        if (v instanceof String) { string((String) v); return; }
+        if (v instanceof Boolean) { ascii((Boolean) v ? "true" : "false"); return; }
+        if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+            integer(((Number) v).longValue());
+            return;
+        }
+        if (v instanceof Number) {
+            String s = v.toString();
+            if (s.endsWith(".0")) s = s.substring(0, s.length() - 2);
+            ascii(s);
+            return;
+        }
+        if (v instanceof Map) { map((Map<?, ?>) v); return; }
+        if (v instanceof Record) { record((Record) v); return; }
+        if (v instanceof Iterable) {
+            put((byte) '[');
+            boolean first = true;
+            for (Object x : (Iterable<?>) v) {
+                if (!first) put((byte) ',');
+                first = false;
+                value(x);
+            }
+            put((byte) ']');
+            return;
+        }
+        string(String.valueOf(v));
+    }
+
+    private void map(Map<?, ?> m) {
+        put((byte) '{');
+        if (isSorted(m)) {
+            boolean first = true;
+            for (Map.Entry<?, ?> e : m.entrySet()) {
+                if (!first) put((byte) ',');
+                first = false;
+                member(String.valueOf(e.getKey()), e.getValue());
+            }
+        } else {
+            String[] keys = new String[m.size()];
+            int i = 0;
+            for (Object k : m.keySet()) keys[i++] = String.valueOf(k);
+            Arrays.sort(keys);
+            for (i = 0; i < keys.length; i++) {
+                if (i > 0) put((byte) ',');
+                member(keys[i], m.get(keys[i]));
+            }
+        }
+        put((byte) '}');
+    }
+
+    private static boolean isSorted(Map<?, ?> m) {
+        if (m instanceof SortedMap && ((SortedMap<?, ?>) m).comparator() == null) return true;
+        String prev = null;
+        for (Object k : m.keySet()) {
+            String s = String.valueOf(k);
+            if (prev != null && prev.compareTo(s) >= 0) return false;
+            prev = s;
+        }
+        return true;
+    }
+
+    private void member(String key, Object value) {
+        string(key);
+        put((byte) ':');
+        value(value);
+    }
+
+    /** Records are written as objects with their components sorted by name. */
+    private void record(Record r) {
+        var components = r.getClass().getRecordComponents();
+        TreeMap<String, Object> fields = new TreeMap<>();
+        for (var c : components) {
+            try {
+                fields.put(c.getName(), c.getAccessor().invoke(r));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read " + c.getName(), e);
+            }
+        }
+        map(fields);
+    }
+
+    // ---------------------------------------------------------------- scalars
+
+    private void integer(long v) {
+        if (v == Long.MIN_VALUE) { ascii(Long.toString(v)); return; }
+        ensure(20);
+        if (v < 0) { buf[len++] = '-'; v = -v; }
+        int start = len;
+        do {
+            buf[len++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        for (int i = start, j = len - 1; i < j; i++, j--) {
+            byte t = buf[i]; buf[i] = buf[j]; buf[j] = t;
+        }
+    }
+
+    private void string(String s) {
+        int n = s.length();
+        ensure(n * 6 + 2);                     // worst case: every char a \\u00XX escape
+        byte[] b = buf;
+        int p = len;
+        b[p++] = '"';
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') { b[p++] = (byte) c; continue; }
+                b[p++] = '\\';
+                switch (c) {
+                    case '"': b[p++] = '"'; break;
+                    case '\\': b[p++] = '\\'; break;
+                    case '\b': b[p++] = 'b'; break;
+                    case '\f': b[p++] = 'f'; break;
+                    case '\n': b[p++] = 'n'; break;
+                    case '\r': b[p++] = 'r'; break;
+                    case '\t': b[p++] = 't'; break;
+                    default:
+                        b[p++] = 'u'; b[p++] = '0'; b[p++] = '0';
+                        b[p++] = HEX[c >> 4]; b[p++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[p++] = (byte) (0xF0 | (cp >> 18));
+                b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                b[p++] = '?';                  // lone surrogate, as String.getBytes(UTF_8) does
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        b[p++] = '"';
+        len = p;
+    }
+
+    private void ascii(String s) {
+        int n = s.length();
+        ensure(n);
+        for (int i = 0; i < n; i++) buf[len++] = (byte) s.charAt(i);
+    }
+
+    private void put(byte c) {
+        ensure(1);
+        buf[len++] = c;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+    }
+}
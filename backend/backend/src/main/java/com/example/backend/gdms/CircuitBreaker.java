@@ -0,0 +1,140 @@
+package com.example.backend.gdms;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint circuit breakers for GDMS calls.
+ *
+ * CLOSED: calls pass; the last {@code window} outcomes are kept and the breaker opens once at
+ * least half the window is filled and the failure rate reaches {@code failureRatePercent}.
+ * OPEN: calls fail immediately with {@link OpenException} for {@code openMillis}.
+ * HALF_OPEN: one probe call is let through; success closes the breaker, failure re-opens it.
+ *
+ * Only failures that say something about GDMS health (transport errors, timeouts, 5xx, 429,
+ * unreadable bodies) should be recorded as failures; a retCode error is a healthy answer.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Thrown instead of calling an endpoint whose breaker is open. */
+    public static final class OpenException extends RuntimeException {
+        OpenException(String endpoint, long retryInMillis) {
+            super("Circuit open for " + endpoint + ", retry in " + retryInMillis + " ms");
+        }
+    }
+
+    /** Inspection view of one endpoint's breaker. */
+    public record Snapshot(String endpoint, State state, int failuresInWindow, int samplesInWindow,
+                           long opens, long rejected) {}
+
+    private final int window;
+    private final int failureRatePercent;
+    private final long openMillis;
+    private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public CircuitBreaker(int window, int failureRatePercent, long openMillis) {
+        this.window = Math.max(2, window);
+        this.failureRatePercent = Math.min(Math.max(failureRatePercent, 1), 100);
+        this.openMillis = Math.max(0, openMillis);
+    }
+
+    public Endpoint forEndpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, Endpoint::new);
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> out = new TreeMap<>();
+        endpoints.forEach((k, v) -> out.put(k, v.snapshot()));
+        return out;
+    }
+
+    public final class Endpoint {
+        private final String name;
+        private final boolean[] outcomes = new boolean[window];   // true = failure
+        private int next, samples, failures;
+        private State state = State.CLOSED;
+        private long openedAtMillis;
+        private boolean probeInFlight;
+        private long opens, rejected;
+
+        private Endpoint(String name) {
+            this.name = name;
+        }
+
+        /** Admit one call or throw {@link OpenException}. Every admitted call must report back. */
+        public synchronized void acquire() {
+            if (state == State.OPEN) {
+                long waited = System.currentTimeMillis() - openedAtMillis;
+                if (waited < openMillis) {
+                    rejected++;
+                    throw new OpenException(name, openMillis - waited);
+                }
+                state = State.HALF_OPEN;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    rejected++;
+                    throw new OpenException(name, 0);
+                }
+                probeInFlight = true;
+            }
+        }
+
+        public synchronized void onSuccess() {
+            if (state == State.HALF_OPEN) {
+                reset(State.CLOSED);
+                return;
+            }
+            record(false);
+        }
+
+        /**
+         * The admitted call ended without an answer from GDMS (aborted locally): nothing is
+         * recorded, and a half-open probe slot is freed for the next caller.
+         */
+        public synchronized void release() {
+            if (state == State.HALF_OPEN) probeInFlight = false;
+        }
+
+        public synchronized void onFailure() {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (samples >= window / 2 && failures * 100 >= failureRatePercent * samples) open();
+        }
+
+        private void record(boolean failure) {
+            if (samples == window) {
+                if (outcomes[next]) failures--;
+            } else {
+                samples++;
+            }
+            outcomes[next] = failure;
+            if (failure) failures++;
+            next = (next + 1) % window;
+        }
+
+        private void open() {
+            reset(State.OPEN);
+            openedAtMillis = System.currentTimeMillis();
+            opens++;
+        }
+
+        private void reset(State to) {
+            state = to;
+            probeInFlight = false;
+            next = samples = failures = 0;
+            Arrays.fill(outcomes, false);
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(name, state, failures, samples, opens, rejected);
+        }
+    }
+}
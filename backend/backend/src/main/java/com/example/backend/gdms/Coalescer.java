@@ -0,0 +1,143 @@
+package com.example.backend.gdms;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent lookups of the same key into one upstream call.
+ *
+ * A caller that finds a call for its key already in flight waits on that call's future instead
+ * of issuing its own. Once a call succeeds its value stays reusable for {@code windowMillis},
+ * so a second report started a moment later for the same org reuses the answers too. Failures
+ * are shared with the callers that were already waiting but never kept for later ones.
+ *
+ * Entries are swept once they leave the window, so memory is bounded by the keys looked up
+ * within one window.
+ */
+public final class Coalescer<K, V> {
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong upstream = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private volatile long lastSweepNanos = System.nanoTime();
+
+    public Coalescer(long windowMillis) {
+        this.windowNanos = Math.max(0, windowMillis) * 1_000_000L;
+    }
+
+    /** Counters since this coalescer was created. {@code saved} = upstream calls avoided. */
+    public record Stats(long upstreamCalls, long joinedInFlight, long reusedRecent, long saved, int tracked) {}
+
+    public Stats stats() {
+        long j = joined.get(), r = reused.get();
+        return new Stats(upstream.get(), j, r, j + r, entries.size());
+    }
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile long completedAtNanos;
+    }
+
+    /** Blocking lookup; the leading caller runs {@code loader} on its own thread. */
+    public V get(K key, Function<K, V> loader) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry<V> e = entries.get(key);
+            if (e != null) {
+                if (!e.future.isDone()) {
+                    joined.incrementAndGet();
+                    return join(e.future);
+                }
+                if (isFresh(e, now)) {
+                    reused.incrementAndGet();
+                    return e.future.join();
+                }
+                entries.remove(key, e);
+                continue;
+            }
+
+            Entry<V> mine = new Entry<>();
+            if (entries.putIfAbsent(key, mine) != null) continue;   // lost the race; look again
+            upstream.incrementAndGet();
+            sweep(now);
+            try {
+                V v = loader.apply(key);
+                mine.completedAtNanos = System.nanoTime();
+                mine.future.complete(v);
+                return v;
+            } catch (RuntimeException | Error ex) {
+                entries.remove(key, mine);
+                mine.future.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /** Non-blocking lookup; the leading caller's {@code loader} future is shared. */
+    public CompletableFuture<V> getAsync(K key, Function<K, CompletableFuture<V>> loader) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry<V> e = entries.get(key);
+            if (e != null) {
+                if (!e.future.isDone()) {
+                    joined.incrementAndGet();
+                    return e.future.thenApply(Function.identity());   // callers can't complete the shared one
+                }
+                if (isFresh(e, now)) {
+                    reused.incrementAndGet();
+                    return CompletableFuture.completedFuture(e.future.join());
+                }
+                entries.remove(key, e);
+                continue;
+            }
+
+            Entry<V> mine = new Entry<>();
+            if (entries.putIfAbsent(key, mine) != null) continue;
+            upstream.incrementAndGet();
+            sweep(now);
+            CompletableFuture<V> call;
+            try {
+                call = loader.apply(key);
+            } catch (RuntimeException ex) {
+                call = CompletableFuture.failedFuture(ex);
+            }
+            call.whenComplete((v, ex) -> {
+                if (ex != null) {
+                    entries.remove(key, mine);
+                    mine.future.completeExceptionally(ex);
+                } else {
+                    mine.completedAtNanos = System.nanoTime();
+                    mine.future.complete(v);
+                }
+            });
+            return mine.future.thenApply(Function.identity());
+        }
+    }
+
+    private boolean isFresh(Entry<V> e, long now) {
+        return !e.future.isCompletedExceptionally() && now - e.completedAtNanos < windowNanos;
+    }
+
+    /** Drop completed entries that have left the window; at most once per window. */
+    private void sweep(long now) {
+        if (now - lastSweepNanos < Math.max(windowNanos, 1_000_000_000L)) return;
+        lastSweepNanos = now;
+        entries.values().removeIf(e -> e.future.isDone() && !isFresh(e, now));
+    }
+
+    private static <V> V join(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof RuntimeException) throw (RuntimeException) c;
+            if (c instanceof Error) throw (Error) c;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.backend.gdms;
+
+/**
+ * One row of {@code /device/list}, bound straight from the response stream.
+ * Numeric fields are null when GDMS leaves them out or sends something non-numeric.
+ */
+public record DeviceRow(
+        String mac,
+        String sn,
+        String deviceName,
+        String siteName,
+        String deviceType,
+        String firmwareVersion,
+        Integer status,
+        Integer isSynchronized,
+        String lastTime,
+        int orgId
+) {
+
+    /** Binder: reads one device object (or null), skipping fields the reports don't use. */
+    static DeviceRow read(JsonReader r) {
+        if (r.nextNull()) return null;
+        String mac = null, sn = null, deviceName = null, siteName = null, deviceType = null,
+                firmwareVersion = null, lastTime = null;
+        Integer status = null, isSynchronized = null, isSynchronizedSnake = null;
+        int orgId = 0;
+        r.beginObject();
+        for (String k; (k = r.nextName()) != null; ) {
+            switch (k) {
+                case "mac": mac = r.nextString(); break;
+                case "sn": sn = r.nextString(); break;
+                case "deviceName": deviceName = r.nextString(); break;
+                case "siteName": siteName = r.nextString(); break;
+                case "deviceType": deviceType = r.nextString(); break;
+                case "firmwareVersion": firmwareVersion = r.nextString(); break;
+                case "status": status = r.nextIntOrNull(); break;
+                case "isSynchronized": isSynchronized = r.nextIntOrNull(); break;
+                case "is_synchronized": isSynchronizedSnake = r.nextIntOrNull(); break;
+                case "lastTime": lastTime = r.nextString(); break;
+                case "orgId": orgId = r.nextInt(0); break;
+                default: r.skipValue();
+            }
+        }
+        return new DeviceRow(mac, sn, deviceName, siteName, deviceType, firmwareVersion,
+                status, isSynchronized != null ? isSynchronized : isSynchronizedSnake, lastTime, orgId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backend.gdms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debug JSON dumps written off the caller's thread.
+ *
+ * {@link #submit} only records the latest payload for a file name and returns. A single
+ * background thread serializes it as compact canonical JSON, writes a temp file and renames it
+ * over the target, so readers never see a half-written dump. Each file is written at most once
+ * per {@code minIntervalMillis}; payloads submitted in between replace each other and only the
+ * newest is written. Payloads must not be mutated after they are submitted.
+ */
+public final class DumpSink implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DumpSink.class);
+
+    /** Sink that drops everything (dumps turned off). */
+    public static final DumpSink OFF = new DumpSink();
+
+    private final Path dir;
+    private final long minIntervalNanos;
+    private final ScheduledThreadPoolExecutor writer;
+    private final Map<String, Object> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+
+    private DumpSink() {
+        this.dir = null;
+        this.minIntervalNanos = 0;
+        this.writer = null;
+    }
+
+    public DumpSink(Path dir, long minIntervalMillis) {
+        this.dir = dir;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minIntervalMillis));
+        this.writer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "gdms-dump-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);   // close() flushes them instead
+    }
+
+    /** Queues {@code data} to be written to {@code file}; never blocks on disk. */
+    public void submit(String file, Object data) {
+        if (writer == null) return;
+        if (pending.put(file, data) != null) {
+            superseded.incrementAndGet();            // a write for this file is already scheduled
+            return;
+        }
+        Long last = lastWriteNanos.get(file);
+        long delay = last == null ? 0 : Math.max(0, last + minIntervalNanos - System.nanoTime());
+        try {
+            writer.schedule(() -> write(file), delay, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {                // closed
+            pending.remove(file);
+        }
+    }
+
+    /** Files written / payloads dropped because a newer one replaced them before the write. */
+    public long written() { return written.get(); }
+    public long superseded() { return superseded.get(); }
+
+    private void write(String file) {
+        Object data = pending.remove(file);
+        if (data == null) return;
+        lastWriteNanos.put(file, System.nanoTime());
+        Path target = dir.resolve(file);
+        Path tmp = dir.resolve(file + ".tmp");
+        try {
+            Files.write(tmp, CanonicalJson.toBytes(data));
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            written.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed writing {}", target, e);
+        }
+    }
+
+    /** Writes whatever is still pending (ignoring the rate limit), then stops the writer. */
+    @Override
+    public void close() {
+        if (writer == null) return;
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);   // let a write in progress finish
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (String file : pending.keySet()) write(file);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.backend.gdms;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.URLDecoder;
@@ -15,11 +18,26 @@ import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPInputStream;
 import java.util.stream.Collectors; // JDK 11: needed for collect(toList)
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public class GDMSAPI {
+    private static final Logger log = LoggerFactory.getLogger(GDMSAPI.class);
+
     // ======== Configuration you set when constructing ========
     private final String gdmsDomain;         // e.g. "www.gdms.cloud"
+    private final String baseUrl;            // https://{gdms_domain} (or the given URL if it has a scheme)
     private final String baseTokenUrl;       // https://{gdms_domain}/oapi/oauth/token
     private final String username;
     private final String passwordHashed;     // sha256(md5(password))
@@ -31,23 +49,46 @@ public class GDMSAPI {
     private final boolean debug;             // optional debug printing
 
     // ======== HTTP ========
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(java.time.Duration.ofSeconds(20))
-            .followRedirects(Redirect.NORMAL)
-            .build();
+    private volatile HttpClient http;
+    private ThreadPoolExecutor httpExecutor;                           // guarded by schedLock
+    private volatile Map<String, java.time.Duration> endpointTimeouts = Map.of();
 
     // ======== Token state ========
-    private volatile String accessToken;
-    private volatile String refreshToken;
-    private volatile String tokenType = "Bearer";
-    private volatile long   expiresAtEpoch;
+    private volatile TokenState tokenState = TokenState.NONE;   // swapped whole, read without locking
+    private final AtomicReference<CompletableFuture<String>> tokenInFlight = new AtomicReference<>();
 
     // ======== Background refresh ========
     private ScheduledExecutorService scheduler;
     private final Object schedLock = new Object();
 
+    // ======== Outbound concurrency (per endpoint, adaptive) ========
+    private volatile AdaptiveLimiter limiter = new AdaptiveLimiter(16, 2, 128);
+
+    // ======== Resilience (retries + per-endpoint circuit breakers) ========
+    private volatile RetryPolicy retryPolicy = new RetryPolicy(3, 200, 2000, Set.of());
+    private volatile CircuitBreaker breakers = new CircuitBreaker(20, 50, 30_000);
+
+    // ======== Status fan-out (shared by every caller) ========
+    private volatile BoundedFanOut statusFanOut = new BoundedFanOut("gdms-status", 64);
+    private volatile Coalescer<String, AccountStatus> statusCoalescer = new Coalescer<>(2000);
+    private volatile DumpSink dumps = DumpSink.OFF;
+    private volatile GdmsMetrics metrics = GdmsMetrics.NOOP;
+
+    // ======== Pagination ========
+    private volatile int pageConcurrency = 4;  // pages 2..N fetched in parallel
+    private final ExecutorService pageExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "gdms-page-fetch");
+        t.setDaemon(true);
+        return t;
+    });
+    // Async response bodies are read here (blocking stream reads, never on the HttpClient's threads)
+    private volatile ThreadPoolExecutor bodyExecutor = daemonPool("gdms-body-", 16);
+
     // ======== Public constants used by workflow methods (optional) ========
     public static final String DEFAULT_API_VERSION = "v1.0.0";
+    private static final String API_PREFIX = "/oapi/" + DEFAULT_API_VERSION;
+    private static final Map<String, String> JSON_HEADERS =
+            Map.of("Content-Type", "application/json", "Accept", "application/json", "Accept-Encoding", "gzip");
 
     // ======== Constructor ========
     public GDMSAPI(
@@ -62,7 +103,8 @@ public class GDMSAPI {
             boolean debug             // true for verbose logs
     ) {
         this.gdmsDomain = Objects.requireNonNull(gdmsDomain);
-        this.baseTokenUrl = "https://" + gdmsDomain + "/oapi/oauth/token";
+        this.baseUrl = gdmsDomain.contains("://") ? gdmsDomain : "https://" + gdmsDomain;
+        this.baseTokenUrl = baseUrl + "/oapi/oauth/token";
         this.username = Objects.requireNonNull(username);
         this.passwordHashed = sha256Hex(md5Hex(passwordPlain.getBytes(StandardCharsets.UTF_8))
                 .getBytes(StandardCharsets.UTF_8));
@@ -72,36 +114,187 @@ public class GDMSAPI {
         this.expirySkewSeconds = Math.max(expirySkewSeconds, 10);
         this.timeoutSeconds = timeoutSeconds;
         this.debug = debug;
+        setTransport(20, 8, true);
     }
 
     // =====================================================================
     //                          TOKEN HANDLING
     // =====================================================================
 
-    /** Return a valid access token, refreshing if needed. */
-    public synchronized String ensureToken() {
-        if (!isTokenValid()) {
-            if (refreshToken != null) {
-                try { refresh(); } catch (Exception e) { passwordGrant(); }
-            } else {
-                passwordGrant();
-            }
-        }
-        return accessToken;
+    /** Return a valid access token, refreshing if needed. Lock-free when the token is valid. */
+    public String ensureToken() {
+        TokenState t = tokenState;
+        if (t.isValid(expirySkewSeconds)) return t.accessToken;
+        return await(tokenAsync(null));
     }
-    public Map<String, Object> getStatusPayload() {
-        return statusPayload;
+
+    /**
+     * Valid access token without blocking. Concurrent callers that find the token expired
+     * share one in-flight grant.
+     */
+    public CompletableFuture<String> ensureTokenAsync() {
+        TokenState t = tokenState;
+        if (t.isValid(expirySkewSeconds)) return CompletableFuture.completedFuture(t.accessToken);
+        return tokenAsync(null);
+    }
+
+    /** Epoch second at which the current access token expires (0 before the first grant). */
+    public long getTokenExpiresAtEpoch() {
+        return tokenState.expiresAtEpoch;
     }
 
     /** Authorization header map: { "Authorization": "Bearer <token>" } */
     public Map<String, String> authHeader() {
-        String tok = ensureToken();
+        return authHeaderFor(ensureToken());
+    }
+
+    private Map<String, String> authHeaderFor(String tok) {
+        String tokenType = tokenState.tokenType;
         String typ = (tokenType == null || tokenType.isBlank()) ? "Bearer" : tokenType;
         typ = typ.substring(0,1).toUpperCase(Locale.ROOT) + typ.substring(1).toLowerCase(Locale.ROOT);
         return Map.of("Authorization", typ + " " + tok);
     }
 
-    /** Start a daemon scheduler that periodically ensures/refreshes the token. */
+    /**
+     * Rebuild the HTTP transport: HTTP/2 when {@code http2} and the server agrees (ALPN on https,
+     * h2c upgrade on plain http; HTTP/1.1 otherwise), the given connect timeout, and a dedicated
+     * pool of {@code threads} daemon threads for the client's I/O callbacks instead of the JDK's
+     * unbounded default. Calls already in flight finish on the previous transport.
+     */
+    public void setTransport(int connectTimeoutSeconds, int threads, boolean http2) {
+        ThreadPoolExecutor executor = daemonPool("gdms-http-", threads);
+        HttpClient client = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(java.time.Duration.ofSeconds(Math.max(1, connectTimeoutSeconds)))
+                .followRedirects(Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        synchronized (schedLock) {
+            if (httpExecutor != null) httpExecutor.shutdown();   // queued callbacks still run
+            httpExecutor = executor;
+            http = client;
+        }
+    }
+
+    /**
+     * Threads that read async response bodies. An async call holds one only while its body
+     * streams in; further bodies wait in the queue, so thousands of calls in flight never mean
+     * thousands of threads. Bodies already queued are still read by the previous pool.
+     */
+    public void setBodyReadThreads(int threads) {
+        ThreadPoolExecutor old = bodyExecutor;
+        bodyExecutor = daemonPool("gdms-body-", threads);
+        old.shutdown();
+    }
+
+    /** Fixed pool of {@code threads} daemon threads that time out when idle. */
+    private static ThreadPoolExecutor daemonPool(String namePrefix, int threads) {
+        int n = Math.max(1, threads);
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(n, n, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, namePrefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Request timeouts per endpoint (e.g. {@code /device/list} → 60s for large pages); endpoints
+     * not listed use the constructor's {@code timeoutSeconds}.
+     */
+    public void setRequestTimeouts(Map<String, java.time.Duration> timeoutsByEndpoint) {
+        this.endpointTimeouts = Map.copyOf(timeoutsByEndpoint);
+    }
+
+    /** Replace the per-endpoint adaptive limiter (initial / floor / ceiling of concurrent calls). */
+    public void setAdaptiveLimits(int initialLimit, int minLimit, int maxLimit) {
+        this.limiter = new AdaptiveLimiter(initialLimit, minLimit, maxLimit);
+    }
+
+    /** Current adaptive limit, in-flight and queued calls, and latency per GDMS endpoint. */
+    public Map<String, AdaptiveLimiter.State> getLimiterState() {
+        return limiter.snapshot();
+    }
+
+    /**
+     * Retry transient failures (timeouts, I/O errors, 5xx, 429, unreadable bodies and the given
+     * retCodes) up to {@code maxAttempts} in total, with full-jitter exponential backoff.
+     */
+    public void setRetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, Set<Integer> retryableRetCodes) {
+        this.retryPolicy = new RetryPolicy(maxAttempts, baseDelayMillis, maxDelayMillis, retryableRetCodes);
+    }
+
+    /** Open an endpoint's breaker at {@code failureRatePercent} over the last {@code window} calls, for {@code openSeconds}. */
+    public void setCircuitBreaker(int window, int failureRatePercent, int openSeconds) {
+        this.breakers = new CircuitBreaker(window, failureRatePercent, openSeconds * 1000L);
+    }
+
+    /** Circuit breaker state per GDMS endpoint. */
+    public Map<String, CircuitBreaker.Snapshot> getCircuitState() {
+        return breakers.snapshot();
+    }
+
+    /** Max number of pages fetched concurrently once page 1 has revealed the page count. */
+    public void setPageConcurrency(int pageConcurrency) {
+        this.pageConcurrency = Math.max(1, pageConcurrency);
+    }
+
+    /**
+     * Max number of device account status calls in flight across all concurrent crawls.
+     * Crawls already running finish on the previous engine, which is closed once they are done.
+     */
+    public void setStatusConcurrency(int statusConcurrency) {
+        BoundedFanOut old = statusFanOut;
+        if (old.maxConcurrency() == Math.max(1, statusConcurrency)) return;
+        statusFanOut = new BoundedFanOut("gdms-status", statusConcurrency);
+        old.close();
+    }
+
+    /** How long a fetched account status is reused by other callers (0 = only share in-flight calls). */
+    public void setStatusCoalescingWindow(long windowMillis) {
+        this.statusCoalescer = new Coalescer<>(windowMillis);
+    }
+
+    /** Upstream status calls made vs. saved by coalescing. */
+    public Coalescer.Stats getStatusCoalescing() {
+        return statusCoalescer.stats();
+    }
+
+    /** Where the debug JSON dumps go; {@link DumpSink#OFF} (the default) skips them. */
+    public void setDumpSink(DumpSink dumps) {
+        this.dumps = dumps;
+    }
+
+    /** Where call timings, retries and token grants are reported; {@link GdmsMetrics#NOOP} by default. */
+    public void setMetrics(GdmsMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** Signed calls currently holding / waiting for an adaptive-limit permit, over all endpoints. */
+    public int getUpstreamInFlight() {
+        return limiter.snapshot().values().stream().mapToInt(AdaptiveLimiter.State::inFlight).sum();
+    }
+
+    public int getUpstreamQueued() {
+        return limiter.snapshot().values().stream().mapToInt(AdaptiveLimiter.State::queued).sum();
+    }
+
+    /** Status lookups running on / waiting for the shared status fan-out. */
+    public int getStatusFanOutActive() {
+        return statusFanOut.inFlight();
+    }
+
+    public int getStatusFanOutWaiting() {
+        return statusFanOut.waiting();
+    }
+
+    /**
+     * Start a daemon scheduler that refreshes the token shortly before it expires.
+     * Each run is scheduled from {@code expiresAtEpoch - expirySkewSeconds}, clamped to
+     * [minSleepSec, maxSleepSec] so failures are retried and long-lived tokens are still re-checked.
+     */
     public void startRefreshLoop(int minSleepSec, int maxSleepSec) {
         synchronized (schedLock) {
             if (scheduler != null && !scheduler.isShutdown()) return;
@@ -110,10 +303,21 @@ public class GDMSAPI {
                 t.setDaemon(true);
                 return t;
             });
-            // (kept original behavior)
-            scheduler.scheduleWithFixedDelay(() -> {
+            int min = Math.max(minSleepSec, 10);
+            int max = Math.max(maxSleepSec, min);
+            scheduleRefresh(scheduler, min, min, max);
+        }
+    }
+
+    private void scheduleRefresh(ScheduledExecutorService s, long delaySec, int minSleepSec, int maxSleepSec) {
+        try {
+            s.schedule(() -> {
                 try { ensureToken(); } catch (Exception ignored) {}
-            }, Math.max(minSleepSec, 10), Math.max(minSleepSec, 10), TimeUnit.SECONDS);
+                long untilDue = tokenState.expiresAtEpoch - expirySkewSeconds - Instant.now().getEpochSecond();
+                scheduleRefresh(s, Math.min(Math.max(untilDue, minSleepSec), maxSleepSec), minSleepSec, maxSleepSec);
+            }, delaySec, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // loop stopped
         }
     }
 
@@ -128,15 +332,67 @@ public class GDMSAPI {
     }
 
     // ---- Internals ----
-    private boolean isTokenValid() {
-        return accessToken != null && (Instant.now().getEpochSecond() + expirySkewSeconds) < expiresAtEpoch;
+
+    /** Immutable token snapshot; replaced as a unit after every grant. */
+    private static final class TokenState {
+        static final TokenState NONE = new TokenState(null, null, "Bearer", 0);
+
+        final String accessToken;
+        final String refreshToken;
+        final String tokenType;
+        final long   expiresAtEpoch;
+
+        TokenState(String accessToken, String refreshToken, String tokenType, long expiresAtEpoch) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.tokenType = tokenType;
+            this.expiresAtEpoch = expiresAtEpoch;
+        }
+
+        boolean isValid(int skewSeconds) {
+            return accessToken != null && (Instant.now().getEpochSecond() + skewSeconds) < expiresAtEpoch;
+        }
     }
 
-    private void forceRefresh() {
-        try { refresh(); } catch (Exception e) { passwordGrant(); }
+    /**
+     * Single-flight token acquisition. Returns the current token if it is valid and is not
+     * {@code rejected} (a token the server just answered 401/403 for); otherwise joins the grant
+     * already in flight or starts one. Only one grant runs at a time.
+     */
+    private CompletableFuture<String> tokenAsync(String rejected) {
+        while (true) {
+            TokenState seen = tokenState;
+            if (seen.isValid(expirySkewSeconds) && !seen.accessToken.equals(rejected)) {
+                return CompletableFuture.completedFuture(seen.accessToken);
+            }
+            CompletableFuture<String> running = tokenInFlight.get();
+            if (running != null) return running;
+
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            if (!tokenInFlight.compareAndSet(null, mine)) continue;
+
+            // A grant may have finished between reading the token and winning the slot.
+            TokenState now = tokenState;
+            if (now != seen && now.isValid(expirySkewSeconds) && !now.accessToken.equals(rejected)) {
+                tokenInFlight.compareAndSet(mine, null);
+                mine.complete(now.accessToken);
+                return mine;
+            }
+
+            CompletableFuture<TokenState> grant = (now.refreshToken != null)
+                    ? refreshAsync(now.refreshToken).exceptionallyCompose(e -> passwordGrantAsync())
+                    : passwordGrantAsync();
+            grant.whenComplete((t, ex) -> {
+                if (t != null) tokenState = t;
+                tokenInFlight.compareAndSet(mine, null);
+                if (ex != null) mine.completeExceptionally(unwrap(ex));
+                else mine.complete(t.accessToken);
+            });
+            return mine;
+        }
     }
 
-    private void passwordGrant() {
+    private CompletableFuture<TokenState> passwordGrantAsync() {
         Map<String, String> q = new LinkedHashMap<>();
         q.put("username", username);
         q.put("password", passwordHashed);
@@ -144,17 +400,16 @@ public class GDMSAPI {
         q.put("client_id", clientId);
         q.put("client_secret", clientSecret);
         if (scope != null && !scope.isBlank()) q.put("scope", scope);
-        callTokenEndpoint(q);
+        return callTokenEndpointAsync(q, null);
     }
 
-    private void refresh() {
-        if (refreshToken == null) throw new RuntimeException("No refresh_token available.");
+    private CompletableFuture<TokenState> refreshAsync(String refreshToken) {
         Map<String, String> q = new LinkedHashMap<>();
         q.put("grant_type", "refresh_token");
         q.put("refresh_token", refreshToken);
         q.put("client_id", clientId);
         q.put("client_secret", clientSecret);
-        callTokenEndpoint(q);
+        return callTokenEndpointAsync(q, refreshToken);
     }
 
     private void dumpResponse(String tag, HttpResponse<String> response) {
@@ -165,26 +420,28 @@ public class GDMSAPI {
         System.out.println("===============");
     }
 
-    private void callTokenEndpoint(Map<String, String> params) {
-        try {
-            String url = baseTokenUrl + "?" + form(params);
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(java.time.Duration.ofSeconds(timeoutSeconds))
-                    .header("Accept", "*/*")
-                    .header("User-Agent", "GDMSTokenClient/1.0")
-                    .GET()
-                    .build();
-
-            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-            if (debug) dumpResponse("Token Response", resp);
-            handleTokenResponse(resp);
-        } catch (Exception e) {
-            throw new RuntimeException("Token request failed", e);
-        }
+    private CompletableFuture<TokenState> callTokenEndpointAsync(Map<String, String> params, String previousRefresh) {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseTokenUrl + "?" + form(params)))
+                .timeout(java.time.Duration.ofSeconds(timeoutSeconds))
+                .header("Accept", "*/*")
+                .header("User-Agent", "GDMSTokenClient/1.0")
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        return http.sendAsync(req, HttpResponse.BodyHandlers.ofString())
+                .thenApply(resp -> {
+                    if (debug) dumpResponse("Token Response", resp);
+                    return handleTokenResponse(resp, previousRefresh);
+                })
+                .handle((t, ex) -> {
+                    metrics.tokenGrant(params.get("grant_type"), ex == null, System.nanoTime() - start);
+                    if (ex == null) return t;
+                    throw new RuntimeException("Token request failed", unwrap(ex));
+                });
     }
 
-    private void handleTokenResponse(HttpResponse<String> response) {
+    private static TokenState handleTokenResponse(HttpResponse<String> response, String previousRefresh) {
         String body = response.body();
         if (response.statusCode() != 200) {
             throw new RuntimeException("Token request failed: HTTP " + response.statusCode()
@@ -206,17 +463,26 @@ public class GDMSAPI {
         if (at == null || at.isBlank()) {
             throw new RuntimeException("No access_token in token response. Body=" + truncate(body, 500));
         }
-        this.accessToken = at;
 
         String tt = kv.getOrDefault("token_type", "bearer");
-        this.tokenType = tt;
 
         String rt = kv.get("refresh_token");
-        if (rt != null && !rt.isBlank()) this.refreshToken = rt;
+        if (rt == null || rt.isBlank()) rt = previousRefresh;
 
         int expiresIn = 3600;
         try { expiresIn = Integer.parseInt(kv.getOrDefault("expires_in", "3600")); } catch (Exception ignore) {}
-        this.expiresAtEpoch = Instant.now().getEpochSecond() + expiresIn;
+        return new TokenState(at, rt, tt, Instant.now().getEpochSecond() + expiresIn);
+    }
+
+    /** Join a future from a blocking caller, surfacing the original failure. */
+    private static <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable c = unwrap(e);
+            if (c instanceof RuntimeException) throw (RuntimeException) c;
+            throw new RuntimeException(c.getMessage(), c);
+        }
     }
 
     // =====================================================================
@@ -231,127 +497,279 @@ public class GDMSAPI {
             Map<String, String> headers,
             String body
     ) throws Exception {
-        String token = ensureToken();
-        String urlWithParams = appendQuery(url, params);
-        Map<String, String> hdrs = new HashMap<>();
-        if (headers != null) hdrs.putAll(headers);
-
-        if (useHeader) hdrs.putAll(authHeader());
-        else urlWithParams = addQueryToken(urlWithParams, token);
+        return exchange(method, url, useHeader, params, headers, utf8(body), HttpResponse.BodyHandlers.ofString());
+    }
 
-        HttpResponse<String> resp = send(method, urlWithParams, hdrs, body);
+    /** {@link #request} with the caller's body handler (signed calls stream the body as bytes). */
+    private <T> HttpResponse<T> exchange(
+            String method,
+            String url,
+            boolean useHeader,
+            Map<String, Object> params,
+            Map<String, String> headers,
+            byte[] body,
+            HttpResponse.BodyHandler<T> handler
+    ) throws Exception {
+        String token = ensureToken();
+        HttpResponse<T> resp = send(method, authorize(url, params, useHeader, token),
+                headersWithAuth(headers, useHeader, token), body, handler);
         if (resp.statusCode() == 401 || resp.statusCode() == 403) {
-            forceRefresh();
-            hdrs = new HashMap<>(headers == null ? Map.of() : headers);
-            if (useHeader) hdrs.putAll(authHeader());
-            else urlWithParams = addQueryToken(appendQuery(url, params), accessToken);
-            resp = send(method, urlWithParams, hdrs, body);
+            discard(resp);
+            // every thread that saw the rejection waits on the same refresh
+            String fresh = await(tokenAsync(token));
+            resp = send(method, authorize(url, params, useHeader, fresh),
+                    headersWithAuth(headers, useHeader, fresh), body, handler);
         }
         return resp;
     }
 
-    private HttpResponse<String> send(String method, String url, Map<String, String> headers, String body) throws Exception {
+    private <T> HttpResponse<T> send(String method, String url, Map<String, String> headers, byte[] body,
+                                     HttpResponse.BodyHandler<T> handler) throws Exception {
+        return http.send(buildRequest(method, url, headers, body), handler);
+    }
+
+    private HttpRequest buildRequest(String method, String url, Map<String, String> headers, byte[] body) {
         HttpRequest.Builder b = HttpRequest.newBuilder()
                 .uri(URI.create(url))
-                .timeout(java.time.Duration.ofSeconds(timeoutSeconds));
-        if (body != null) b.method(method.toUpperCase(Locale.ROOT), HttpRequest.BodyPublishers.ofString(body));
+                .timeout(endpointTimeouts.getOrDefault(endpointOf(url), java.time.Duration.ofSeconds(timeoutSeconds)));
+        if (body != null) b.method(method.toUpperCase(Locale.ROOT), HttpRequest.BodyPublishers.ofByteArray(body));
         else b.method(method.toUpperCase(Locale.ROOT), HttpRequest.BodyPublishers.noBody());
         if (headers != null) headers.forEach(b::header);
-        return http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+        return b.build();
+    }
+
+    private static byte[] utf8(String s) {
+        return (s == null) ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Release a response we are not going to read (streamed bodies hold the connection until closed). */
+    private static void discard(HttpResponse<?> resp) {
+        if (resp.body() instanceof InputStream) {
+            try { ((InputStream) resp.body()).close(); } catch (IOException ignored) {}
+        }
     }
 
     // =====================================================================
     //                       SIGNED JSON CALL HELPERS
     // =====================================================================
+    // Signed responses are never held as a String: the body is streamed as UTF-8 bytes into a
+    // JsonReader and each data.result row is handed to the page's row list as soon as it is parsed.
 
-    /** Signed POST JSON → returns parsed Map (GDMS envelope) with retCode check. */
-    private Map<String,Object> postJsonSigned(String url, Map<String,Object> body) {
-        long ts = System.currentTimeMillis();
-        String token = ensureToken();
-        Signature.JsonSig sig = Signature.buildSignatureJson(
-                url, token, clientId, clientSecret, ts, body, true, true
-        );
+    /** Reads a GDMS envelope from the response body once HTTP 200 has been checked. */
+    @FunctionalInterface
+    private interface EnvelopeReader<T> {
+        T read(JsonReader r);
+    }
 
-        String finalUrl = Signature.attachCommonParamsToUrl(url, token, ts, sig.signature);
-        Signature.JsonNorm norm = Signature.normalizeBodyJson(body);
-        String rawBody = norm.rawBody;
+    /** One page of a listing: its rows and the total page count from {@code data.pages}. */
+    private record Page<T>(List<T> rows, int pages) {}
+
+    /** Signed listing page (POST or GET-with-body); rows are bound by {@code rowReader} as they stream in. */
+    private <T> Page<T> signedPage(String method, String url, Map<String,Object> body, Function<JsonReader, T> rowReader) {
         try {
-            HttpResponse<String> resp = request("POST", finalUrl, true, null,
-                    Map.of("Content-Type", "application/json", "Accept", "application/json"),
-                    rawBody);
-            if (resp.statusCode() != 200) {
-                throw new RuntimeException("HTTP " + resp.statusCode() + " " + truncate(resp.body(), 500));
-            }
-            Object parsed = MiniJson.parse(resp.body());
-            if (!(parsed instanceof Map)) throw new RuntimeException("Non-object JSON: " + truncate(resp.body(), 500));
-            Map<String,Object> m = castMap(parsed);
-            Object rc = m.get("retCode");
-            if (rc == null || toInt(rc) != 0) {
-                throw new RuntimeException("API error: " + rc + " - " + String.valueOf(m.get("msg")));
-            }
-            return m;
+            return signedCall(method, url, body, r -> readPage(r, rowReader));
         } catch (Exception e) {
-            throw new RuntimeException("POST signed failed: " + e.getMessage(), e);
+            throw new RuntimeException(method + " signed failed: " + e.getMessage(), e);
         }
     }
 
-    // =====================================================================
-    //                              STEP APIS
-    // =====================================================================
+    /**
+     * Signed call with the resilience layer: the endpoint's circuit breaker must admit each
+     * attempt, and failures classified as transient are retried with jittered exponential
+     * backoff while the shared retry budget allows.
+     */
+    private <T> T signedCall(String method, String url, Map<String,Object> bodyOrNull, EnvelopeReader<T> reader) throws Exception {
+        String endpoint = endpointOf(url);
+        CircuitBreaker.Endpoint breaker = breakers.forEndpoint(endpoint);
+        RetryPolicy retry = retryPolicy;
+        retry.deposit();
+        for (int attempt = 1; ; attempt++) {
+            breaker.acquire();
+            try {
+                T m = signedAttempt(method, url, endpoint, bodyOrNull, reader);
+                breaker.onSuccess();
+                return m;
+            } catch (Exception e) {
+                RetryPolicy.Outcome outcome = retry.classify(e);
+                report(breaker, outcome);
+                if (!retry.shouldRetry(attempt, outcome)) throw e;
+                metrics.retry(endpoint);
+                log.warn("Retrying {} (attempt {}): {}", endpoint, attempt + 1, e.getMessage());
+                Thread.sleep(retry.backoffMillis(attempt));
+            }
+        }
+    }
 
-    /** Signed GET JSON (optionally with a JSON body) → returns parsed Map with retCode check. */
-    private Map<String, Object> getSigned(String url, Map<String, Object> bodyOrNull) {
-        long ts = System.currentTimeMillis();
-        String token = ensureToken(); // Ensure we have a valid token
+    /** RETRY = GDMS in trouble; FAIL = GDMS answered (healthy); ABORT = no answer, nothing to record. */
+    private static void report(CircuitBreaker.Endpoint breaker, RetryPolicy.Outcome outcome) {
+        switch (outcome) {
+            case RETRY -> breaker.onFailure();
+            case FAIL -> breaker.onSuccess();
+            case ABORT -> breaker.release();
+        }
+    }
 
-        Signature.JsonSig sig = Signature.buildSignatureJson(
-                url, token, clientId, clientSecret, ts, bodyOrNull, true, true
-        );
+    /**
+     * Sign, send and validate one attempt while holding a permit from the endpoint's adaptive limit.
+     * Anything short of a valid retCode 0 envelope is reported to the limiter as a failure.
+     */
+    private <T> T signedAttempt(String method, String url, String endpoint, Map<String,Object> bodyOrNull,
+                                EnvelopeReader<T> reader) throws Exception {
+        AdaptiveLimiter.Permit permit = limiter.forEndpoint(endpoint).acquire();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            long ts = System.currentTimeMillis();
+            String token = ensureToken();
+            Signature.JsonSig sig = Signature.buildSignatureJson(
+                    url, token, clientId, clientSecret, ts, bodyOrNull, true, true
+            );
+            String finalUrl = Signature.attachCommonParamsToUrl(url, token, ts, sig.signature);
+            byte[] rawBody = (bodyOrNull == null) ? null : sig.body;   // the exact bytes that were hashed
+
+            return readSigned(exchange(method, finalUrl, true, null, JSON_HEADERS, rawBody,
+                    HttpResponse.BodyHandlers.ofInputStream()), reader);
+        } catch (Exception | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null) permit.success(); else permit.failure();
+            recordAttempt(endpoint, start, failure);
+        }
+    }
 
-        String finalUrl = Signature.attachCommonParamsToUrl(url, token, ts, sig.signature);
-        String rawBody = (bodyOrNull == null) ? null : Signature.normalizeBodyJson(bodyOrNull).rawBody;
+    /** Report one attempt's duration and outcome (plus its retCode when GDMS sent one). */
+    private void recordAttempt(String endpoint, long startNanos, Throwable failure) {
+        GdmsMetrics m = metrics;
+        m.call(endpoint, failure == null ? "ok" : GdmsMetrics.outcomeOf(failure), System.nanoTime() - startNanos);
+        if (failure instanceof GdmsCallException e && e.getRetCode() != null) m.retCodeFailure(endpoint, e.getRetCode());
+    }
 
-        try {
-            HttpResponse<String> resp = request("GET", finalUrl, true, null,
-                    Map.of("Content-Type", "application/json", "Accept", "application/json"), rawBody);
+    /** Limiter key for a GDMS API URL: the path after {@code /oapi/<version>}, e.g. {@code /device/list}. */
+    static String endpointOf(String url) {
+        int q = url.indexOf('?');
+        String path = (q >= 0) ? url.substring(0, q) : url;
+        int i = path.indexOf(API_PREFIX);
+        return (i >= 0) ? path.substring(i + API_PREFIX.length()) : path;
+    }
 
+    /**
+     * Check HTTP 200, then stream the body through {@code reader}; the stream is always closed.
+     * A gzip body is inflated as it is read, so it is never held compressed or whole.
+     */
+    private static <T> T readSigned(HttpResponse<InputStream> resp, EnvelopeReader<T> reader) throws IOException {
+        try (InputStream in = decoded(resp)) {
             if (resp.statusCode() != 200) {
-                throw new RuntimeException("HTTP " + resp.statusCode() + " " + truncate(resp.body(), 500));
+                String head = new String(in.readNBytes(501), StandardCharsets.UTF_8);
+                throw new GdmsCallException("HTTP " + resp.statusCode() + " " + truncate(head, 500),
+                        resp.statusCode(), null);
+            }
+            try {
+                return reader.read(new JsonReader(in));
+            } catch (IllegalStateException e) {
+                throw new GdmsCallException("Bad JSON (" + e.getMessage() + ")", -1, null);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
+        }
+    }
 
-            Object parsed = MiniJson.parse(resp.body());
-            if (!(parsed instanceof Map)) throw new RuntimeException("Non-object JSON: " + truncate(resp.body(), 500));
-            Map<String, Object> m = castMap(parsed);
+    private static InputStream decoded(HttpResponse<InputStream> resp) throws IOException {
+        String encoding = resp.headers().firstValue("Content-Encoding").orElse("");
+        if (!"gzip".equalsIgnoreCase(encoding.trim())) return resp.body();
+        try {
+            return new GZIPInputStream(resp.body(), 1 << 13);
+        } catch (IOException e) {
+            resp.body().close();
+            throw e;
+        }
+    }
 
-            Object rc = m.get("retCode");
-            if (rc == null || toInt(rc) != 0) {
-                throw new RuntimeException("API error: " + rc + " - " + m.get("msg"));
+    /** Whole envelope as a Map (status calls) with the retCode check. */
+    private static Map<String,Object> readEnvelope(JsonReader r) {
+        return checkRetCode(readEnvelope(r, null, null));
+    }
+
+    /** Listing page of Map rows with the retCode check. */
+    private static Page<Map<String,Object>> readMapPage(JsonReader r) {
+        return readPage(r, JsonReader::nextObjectMap);
+    }
+
+    private static <T> Page<T> readPage(JsonReader r, Function<JsonReader, T> rowReader) {
+        List<T> rows = new ArrayList<>();
+        Map<String,Object> m = checkRetCode(readEnvelope(r, rowReader, rows::add));
+        Map<String,Object> data = castMap(m.get("data"));
+        return new Page<>(rows, data == null ? 1 : toInt(data.get("pages"), 1));
+    }
+
+    /**
+     * Read a GDMS envelope object. When {@code rowReader} is given, each element of
+     * {@code data.result} is read with it and passed to {@code rowSink} instead of being kept
+     * in the returned Map; everything else in the envelope is kept as usual.
+     */
+    private static <T> Map<String,Object> readEnvelope(JsonReader r, Function<JsonReader, T> rowReader, Consumer<T> rowSink) {
+        if (r.peek() != '{') throw new GdmsCallException("Non-object JSON", -1, null);
+        Map<String,Object> m = new LinkedHashMap<>();
+        r.beginObject();
+        for (String k; (k = r.nextName()) != null; ) {
+            if (rowReader != null && "data".equals(k) && r.peek() == '{') {
+                Map<String,Object> data = new LinkedHashMap<>();
+                r.beginObject();
+                for (String dk; (dk = r.nextName()) != null; ) {
+                    if ("result".equals(dk) && r.peek() == '[') {
+                        r.beginArray();
+                        while (r.nextElement()) {
+                            T row = rowReader.apply(r);
+                            if (row != null) rowSink.accept(row);
+                        }
+                    } else {
+                        data.put(dk, r.nextValue());
+                    }
+                }
+                m.put(k, data);
+            } else {
+                m.put(k, r.nextValue());
             }
-            return m;
-        } catch (Exception e) {
-            throw new RuntimeException("GET signed failed: " + e.getMessage(), e);
         }
+        return m;
+    }
+
+    /** Envelope whose {@code data} value is bound by {@code dataReader}; null if GDMS sent no data. */
+    private static <T> T readDataEnvelope(JsonReader r, Function<JsonReader, T> dataReader) {
+        if (r.peek() != '{') throw new GdmsCallException("Non-object JSON", -1, null);
+        Map<String,Object> m = new LinkedHashMap<>();
+        T data = null;
+        r.beginObject();
+        for (String k; (k = r.nextName()) != null; ) {
+            if ("data".equals(k)) data = dataReader.apply(r);
+            else m.put(k, r.nextValue());
+        }
+        checkRetCode(m);
+        return data;
+    }
+
+    /** Require {@code retCode == 0}. */
+    private static Map<String,Object> checkRetCode(Map<String,Object> m) {
+        Object rc = m.get("retCode");
+        if (rc == null || toInt(rc) != 0) {
+            throw new GdmsCallException("API error: " + rc + " - " + m.get("msg"), -1, rc == null ? null : toInt(rc));
+        }
+        return m;
     }
 
+    // =====================================================================
+    //                              STEP APIS
+    // =====================================================================
+
     /** Step 1: List all orgs (paged). */
     public List<Map<String,Object>> listOrgsAll(int pageSize) {
-        String url = "https://" + gdmsDomain + "/oapi/" + DEFAULT_API_VERSION + "/org/list";
-        Map<String,Object> page1 = getSigned(url, mapOf("pageSize", pageSize, "pageNum", 1));
-        Map<String,Object> data = castMap(page1.get("data"));
-        List<Map<String,Object>> items = castListMap(data.get("result"));
-        int pages = toInt(data.get("pages"), 1);
-        for (int p = 2; p <= pages; p++) {
-            Map<String,Object> nxt = getSigned(url, mapOf("pageSize", pageSize, "pageNum", p));
-            Map<String,Object> d2 = castMap(nxt.get("data"));
-            items.addAll(castListMap(d2.get("result")));
-        }
-        return items;
+        String url = baseUrl + API_PREFIX + "/org/list";
+        return fetchAllPages(p -> signedPage("GET", url, mapOf("pageSize", pageSize, "pageNum", p), JsonReader::nextObjectMap));
     }
 
     /** Step 2: Device list for one org (paged), returns the raw device rows. */
     public List<Map<String,Object>> fetchDevicesForOrg(int orgId, int pageSize) {
-        String url = "https://" + gdmsDomain + "/oapi/" + DEFAULT_API_VERSION + "/device/list";
-        List<Map<String,Object>> out = new ArrayList<>();
+        String url = baseUrl + API_PREFIX + "/device/list";
         Map<String,Object> body = new LinkedHashMap<>();
         body.put("order", "");
         body.put("pageNum", 1);
@@ -360,49 +778,24 @@ public class GDMSAPI {
         body.put("orgId", orgId);
 
         System.out.println("Requesting device list for Org ID: " + orgId);
-        Map<String,Object> page1 = postJsonSigned(url, body);
-
-        System.out.println("Device list response: " + MiniJson.stringify(page1));
-
-        Map<String,Object> data = castMap(page1.get("data"));
-        List<Map<String,Object>> devices = castListMap(data.get("result"));
+        List<Map<String,Object>> devices = fetchAllPages(p -> {
+            Page<Map<String,Object>> page = signedPage("POST", url, withPageNum(body, p), JsonReader::nextObjectMap);
+            if (p == 1) log.debug("Device list response: {} rows, pages={}", page.rows().size(), page.pages());
+            return page;
+        });
 
         if (devices.isEmpty()) {
             System.out.println("No devices found for Org " + orgId);
         }
-
-        out.addAll(devices);
-        int pages = toInt(data.get("pages"), 1);
-        for (int p = 2; p <= pages; p++) {
-            body.put("pageNum", p);
-            Map<String,Object> nxt = postJsonSigned(url, body);
-            Map<String,Object> d2 = castMap(nxt.get("data"));
-            out.addAll(castListMap(d2.get("result")));
-        }
-        return out;
+        return devices;
     }
 
     /** Step 3: Device account status for a MAC. Returns the entire response Map. */
     public Map<String,Object> getDeviceAccountStatus(String mac) {
         if (mac == null || mac.isBlank()) throw new IllegalArgumentException("mac must be non-empty");
-        String url = "https://" + gdmsDomain + "/oapi/" + DEFAULT_API_VERSION + "/device/account/status";
-        Map<String,Object> body = mapOf("mac", mac.trim());
-        long ts = System.currentTimeMillis();
-        String token = ensureToken();
-        Signature.JsonSig sig = Signature.buildSignatureJson(
-                url, token, clientId, clientSecret, ts, body, true, true
-        );
-        String finalUrl = Signature.attachCommonParamsToUrl(url, token, ts, sig.signature);
-        String rawBody = Signature.normalizeBodyJson(body).rawBody;
+        String url = baseUrl + API_PREFIX + "/device/account/status";
         try {
-            HttpResponse<String> resp = request("POST", finalUrl, true, null,
-                    Map.of("Content-Type", "application/json", "Accept", "application/json"), rawBody);
-            if (resp.statusCode() != 200) throw new RuntimeException("HTTP " + resp.statusCode() + " " + truncate(resp.body(), 500));
-            Object parsed = MiniJson.parse(resp.body());
-            Map<String,Object> m = castMap(parsed);
-            Object rc = m.get("retCode");
-            if (rc == null || toInt(rc) != 0) throw new RuntimeException("API error: " + rc + " - " + m.get("msg"));
-            return m;
+            return signedCall("POST", url, mapOf("mac", mac.trim()), GDMSAPI::readEnvelope);
         } catch (Exception e) {
             throw new RuntimeException("status call failed for mac " + mac + ": " + e.getMessage(), e);
         }
@@ -410,93 +803,399 @@ public class GDMSAPI {
 
     /** Step 4: SIP account list for an org (paged). */
     public List<Map<String,Object>> sipListForOrg(int orgId, int pageSize) {
-        String url = "https://" + gdmsDomain + "/oapi/" + DEFAULT_API_VERSION + "/sip/account/list";
-        List<Map<String,Object>> out = new ArrayList<>();
+        String url = baseUrl + API_PREFIX + "/sip/account/list";
+        Map<String,Object> body = new LinkedHashMap<>();
+        body.put("order", "");
+        body.put("pageNum", 1);
+        body.put("pageSize", pageSize);
+        body.put("type", "");
+        body.put("orgId", orgId);
+        return fetchAllPages(p -> signedPage("POST", url, withPageNum(body, p), JsonReader::nextObjectMap));
+    }
+
+    // ---- Typed variants: rows are bound to records while the body streams in ----
+
+    /** Step 2 (typed): device rows for one org. */
+    public List<DeviceRow> fetchDeviceRowsForOrg(int orgId, int pageSize) {
+        String url = baseUrl + API_PREFIX + "/device/list";
         Map<String,Object> body = new LinkedHashMap<>();
         body.put("order", "");
         body.put("pageNum", 1);
         body.put("pageSize", pageSize);
         body.put("type", "");
         body.put("orgId", orgId);
-        Map<String,Object> page1 = postJsonSigned(url, body);
-        Map<String,Object> data = castMap(page1.get("data"));
-        out.addAll(castListMap(data.get("result")));
-        int pages = toInt(data.get("pages"), 1);
-        for (int p = 2; p <= pages; p++) {
-            body.put("pageNum", p);
-            Map<String,Object> nxt = postJsonSigned(url, body);
-            Map<String,Object> d2 = castMap(nxt.get("data"));
-            out.addAll(castListMap(d2.get("result")));
+        List<DeviceRow> devices = fetchAllPages(p -> signedPage("POST", url, withPageNum(body, p), DeviceRow::read));
+        log.debug("Org {}: {} devices", orgId, devices.size());
+        return devices;
+    }
+
+    /**
+     * Step 3 (typed): account status for a MAC, or null if GDMS returned no data.
+     * Concurrent callers for the same MAC (e.g. the device and SIP reports of one org loading
+     * together) share one upstream call, and its answer is reused for a short window.
+     */
+    public AccountStatus getAccountStatus(String mac) {
+        if (mac == null || mac.isBlank()) throw new IllegalArgumentException("mac must be non-empty");
+        return statusCoalescer.get(mac.trim().toUpperCase(Locale.ROOT), k -> fetchAccountStatus(mac));
+    }
+
+    private AccountStatus fetchAccountStatus(String mac) {
+        String url = baseUrl + API_PREFIX + "/device/account/status";
+        try {
+            return signedCall("POST", url, mapOf("mac", mac.trim()), r -> readDataEnvelope(r, AccountStatus::read));
+        } catch (Exception e) {
+            throw new RuntimeException("status call failed for mac " + mac + ": " + e.getMessage(), e);
         }
-        return out;
+    }
+
+    /** Step 4 (typed): SIP account rows for one org. */
+    public List<SipAccountRow> fetchSipAccountRowsForOrg(int orgId, int pageSize) {
+        String url = baseUrl + API_PREFIX + "/sip/account/list";
+        Map<String,Object> body = new LinkedHashMap<>();
+        body.put("order", "");
+        body.put("pageNum", 1);
+        body.put("pageSize", pageSize);
+        body.put("orgId", orgId);
+        return fetchAllPages(p -> signedPage("POST", url, withPageNum(body, p), SipAccountRow::read));
+    }
+
+    /**
+     * Step 3 for a device list (typed): statuses fetched through the shared status fan-out.
+     * The result belongs to the caller; nothing is kept on this client.
+     */
+    public StatusCrawl fetchAccountStatuses(List<DeviceRow> devices) {
+        return fetchAccountStatuses(devices, (device, status) -> {}, () -> false);
+    }
+
+    /**
+     * {@link #fetchAccountStatuses(List)} that also hands each device to {@code onStatus} as soon
+     * as its call completes (status null if GDMS had none or the call failed), on the fan-out's
+     * threads; it must not block, since the fan-out is shared by every org's crawl. Once
+     * {@code stop} returns true no further calls are started.
+     */
+    public StatusCrawl fetchAccountStatuses(List<DeviceRow> devices, BiConsumer<DeviceRow, AccountStatus> onStatus,
+                                            BooleanSupplier stop) {
+        long start = System.nanoTime();
+        Map<String, AccountStatus> found = new ConcurrentHashMap<>();
+        Map<String, String> failed = new ConcurrentHashMap<>();
+        statusFanOut.forEach(devices, device -> {
+            String mac = device.mac();
+            if (mac == null || mac.isBlank() || stop.getAsBoolean()) return;
+            AccountStatus status = null;
+            try {
+                status = getAccountStatus(mac);
+                if (status != null) found.put(mac, status);
+                else failed.put(mac, "No status data");
+            } catch (Exception e) {
+                log.warn("Status call failed for {}: {}", mac, e.getMessage());
+                failed.put(mac, String.valueOf(e.getMessage()));
+            }
+            onStatus.accept(device, status);
+        }, stop);
+
+        Map<String, AccountStatus> byMac = new LinkedHashMap<>();
+        for (DeviceRow d : devices) {
+            AccountStatus s = (d.mac() == null) ? null : found.get(d.mac());
+            if (s != null) byMac.put(d.mac(), s);
+        }
+        StatusCrawl crawl = new StatusCrawl(byMac, new TreeMap<>(failed));
+        metrics.statusCrawl(devices.size(), failed.size(), System.nanoTime() - start);
+        writeJson("status_by_org.all_devices.json", mapOf(
+                "success", crawl.byMac(),
+                "failures", crawl.failures(),
+                "meta", mapOf("total", crawl.total(), "success", byMac.size(), "failures", failed.size())
+        ));
+        return crawl;
     }
 
     // =====================================================================
-    //                           MINI JSON (no deps)
+    //                         CONCURRENT PAGINATION
     // =====================================================================
 
-    static final class MiniJson {
-        static Object parse(String s) { return new Parser(s).parse(); }
-        static String stringify(Object v) { return toJson(v); }
-
-        @SuppressWarnings("unchecked")
-        private static String toJson(Object v) {
-            if (v == null) return "null";
-            if (v instanceof String) return quote((String) v);
-            if (v instanceof Boolean) return (Boolean) v ? "true" : "false";
-            if (v instanceof Number) {
-                String s = v.toString();
-                if (s.endsWith(".0")) s = s.substring(0, s.length() - 2);
-                return s;
-            }
-            if (v instanceof Map) {
-                Map<String,Object> in = (Map<String,Object>) v;
-                TreeMap<String,Object> sorted = new TreeMap<>(in);
-                StringBuilder sb = new StringBuilder("{");
-                boolean first = true;
-                for (var e : sorted.entrySet()) {
-                    if (!first) sb.append(',');
-                    first = false;
-                    sb.append(quote(e.getKey())).append(':').append(toJson(e.getValue()));
-                }
-                sb.append('}');
-                return sb.toString();
-            }
-            if (v instanceof Iterable) {
-                StringBuilder sb = new StringBuilder("[");
-                boolean first = true;
-                for (Object x : (Iterable<?>) v) {
-                    if (!first) sb.append(',');
-                    first = false;
-                    sb.append(toJson(x));
+    /**
+     * Fetch page 1, read {@code data.pages}, then fetch pages 2..N concurrently with at most
+     * {@link #pageConcurrency} requests in flight. Rows are returned in page order.
+     */
+    private <T> List<T> fetchAllPages(IntFunction<Page<T>> fetchPage) {
+        Page<T> first = fetchPage.apply(1);
+        List<T> out = first.rows();
+        int pages = first.pages();
+        if (pages <= 1) return out;
+
+        AtomicReferenceArray<List<T>> rest = new AtomicReferenceArray<>(pages - 1);
+        AtomicInteger nextPage = new AtomicInteger(2);
+        Runnable worker = () -> {
+            int p;
+            while ((p = nextPage.getAndIncrement()) <= pages) {
+                try {
+                    rest.set(p - 2, fetchPage.apply(p).rows());
+                } catch (RuntimeException e) {
+                    nextPage.set(pages + 1); // stop the other workers picking up new pages
+                    throw e;
                 }
-                sb.append(']');
-                return sb.toString();
             }
-            return quote(String.valueOf(v));
+        };
+
+        int workers = Math.min(pageConcurrency, pages - 1);
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) futures.add(pageExecutor.submit(worker));
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException("Page fetch failed: " + cause, cause);
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching pages", e);
         }
 
-        private static String quote(String s) {
-            StringBuilder sb = new StringBuilder(s.length() + 2);
-            sb.append('"');
-            for (int i = 0; i < s.length(); i++) {
-                char c = s.charAt(i);
-                switch (c) {
-                    case '"': sb.append("\\\""); break;
-                    case '\\': sb.append("\\\\"); break;
-                    case '\b': sb.append("\\b"); break;
-                    case '\f': sb.append("\\f"); break;
-                    case '\n': sb.append("\\n"); break;
-                    case '\r': sb.append("\\r"); break;
-                    case '\t': sb.append("\\t"); break;
-                    default:
-                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
-                        else sb.append(c);
-                }
+        for (int i = 0; i < rest.length(); i++) out.addAll(rest.get(i));
+        return out;
+    }
+
+    private static Map<String,Object> withPageNum(Map<String,Object> body, int pageNum) {
+        Map<String,Object> copy = new LinkedHashMap<>(body);
+        copy.put("pageNum", pageNum);
+        return copy;
+    }
+
+    // =====================================================================
+    //                              ASYNC API
+    // =====================================================================
+    // Non-blocking counterparts of the step APIs, built on HttpClient.sendAsync.
+    // Continuations run on the HttpClient executor; no caller thread is parked.
+
+    /** Step 1 (async): all orgs, pages 2..N issued concurrently. */
+    public CompletableFuture<List<Map<String,Object>>> listOrgsAllAsync(int pageSize) {
+        String url = baseUrl + API_PREFIX + "/org/list";
+        return fetchAllPagesAsync(p -> signedCallAsync("GET", url, mapOf("pageSize", pageSize, "pageNum", p), GDMSAPI::readMapPage));
+    }
+
+    /** Step 2 (async): raw device rows for one org. */
+    public CompletableFuture<List<Map<String,Object>>> fetchDevicesForOrgAsync(int orgId, int pageSize) {
+        String url = baseUrl + API_PREFIX + "/device/list";
+        Map<String,Object> body = new LinkedHashMap<>();
+        body.put("order", "");
+        body.put("pageNum", 1);
+        body.put("pageSize", pageSize);
+        body.put("type", "");
+        body.put("orgId", orgId);
+        return fetchAllPagesAsync(p -> signedCallAsync("POST", url, withPageNum(body, p), GDMSAPI::readMapPage));
+    }
+
+    /** Step 3 (async): device account status for a MAC (entire response Map). */
+    public CompletableFuture<Map<String,Object>> getDeviceAccountStatusAsync(String mac) {
+        if (mac == null || mac.isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("mac must be non-empty"));
+        }
+        String url = baseUrl + API_PREFIX + "/device/account/status";
+        return signedCallAsync("POST", url, mapOf("mac", mac.trim()), GDMSAPI::readEnvelope)
+                .handle((m, ex) -> {
+                    if (ex == null) return m;
+                    Throwable c = unwrap(ex);
+                    throw new RuntimeException("status call failed for mac " + mac + ": " + c.getMessage(), c);
+                });
+    }
+
+    /** Step 4 (async): SIP account list for an org. */
+    public CompletableFuture<List<Map<String,Object>>> fetchSIPAccountsForOrgAsync(int orgId, int pageSize) {
+        String url = baseUrl + API_PREFIX + "/sip/account/list";
+        Map<String,Object> body = new LinkedHashMap<>();
+        body.put("order", "");
+        body.put("pageNum", 1);
+        body.put("pageSize", pageSize);
+        body.put("orgId", orgId);
+        return fetchAllPagesAsync(p -> signedCallAsync("POST", url, withPageNum(body, p), GDMSAPI::readMapPage));
+    }
+
+    /** Step 4 (async, typed): SIP account rows for an org. */
+    public CompletableFuture<List<SipAccountRow>> fetchSipAccountRowsForOrgAsync(int orgId, int pageSize) {
+        String url = baseUrl + API_PREFIX + "/sip/account/list";
+        Map<String,Object> body = new LinkedHashMap<>();
+        body.put("order", "");
+        body.put("pageNum", 1);
+        body.put("pageSize", pageSize);
+        body.put("orgId", orgId);
+        return fetchAllPagesAsync(p -> signedCallAsync("POST", url, withPageNum(body, p), r -> readPage(r, SipAccountRow::read)));
+    }
+
+    /** Async {@link #request}: same 401/403 single retry, with the token refresh composed in. */
+    public CompletableFuture<HttpResponse<String>> requestAsync(
+            String method,
+            String url,
+            boolean useHeader,
+            Map<String, Object> params,
+            Map<String, String> headers,
+            String body
+    ) {
+        return exchangeAsync(method, url, useHeader, params, headers, utf8(body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> exchangeAsync(
+            String method,
+            String url,
+            boolean useHeader,
+            Map<String, Object> params,
+            Map<String, String> headers,
+            byte[] body,
+            HttpResponse.BodyHandler<T> handler
+    ) {
+        return ensureTokenAsync().thenCompose(token ->
+                sendAsync(method, authorize(url, params, useHeader, token),
+                        headersWithAuth(headers, useHeader, token), body, handler)
+                        .thenCompose(resp -> {
+                            if (resp.statusCode() != 401 && resp.statusCode() != 403) {
+                                return CompletableFuture.completedFuture(resp);
+                            }
+                            discard(resp);
+                            return tokenAsync(token).thenCompose(fresh ->
+                                    sendAsync(method, authorize(url, params, useHeader, fresh),
+                                            headersWithAuth(headers, useHeader, fresh), body, handler));
+                        }));
+    }
+
+    private String authorize(String url, Map<String, Object> params, boolean useHeader, String token) {
+        String u = appendQuery(url, params);
+        return useHeader ? u : addQueryToken(u, token);
+    }
+
+    private Map<String, String> headersWithAuth(Map<String, String> headers, boolean useHeader, String token) {
+        Map<String, String> hdrs = new HashMap<>();
+        if (headers != null) hdrs.putAll(headers);
+        if (useHeader) hdrs.putAll(authHeaderFor(token));
+        return hdrs;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(String method, String url, Map<String, String> headers, byte[] body,
+                                                            HttpResponse.BodyHandler<T> handler) {
+        return http.sendAsync(buildRequest(method, url, headers, body), handler);
+    }
+
+    /** Signed JSON call (POST or GET-with-body) → envelope read by {@code reader}, retCode checked. */
+    private <T> CompletableFuture<T> signedCallAsync(String method, String url, Map<String,Object> body, EnvelopeReader<T> reader) {
+        String endpoint = endpointOf(url);
+        RetryPolicy retry = retryPolicy;
+        retry.deposit();
+        return attemptAsync(method, url, endpoint, body, reader, retry, 1)
+                .handle((m, ex) -> {
+                    if (ex == null) return m;
+                    Throwable c = unwrap(ex);
+                    throw new RuntimeException(method + " signed failed: " + c.getMessage(), c);
+                });
+    }
+
+    /** One async attempt through breaker and limiter; schedules the next attempt on a retryable failure. */
+    private <T> CompletableFuture<T> attemptAsync(
+            String method, String url, String endpoint, Map<String,Object> body, EnvelopeReader<T> reader,
+            RetryPolicy retry, int attempt
+    ) {
+        CircuitBreaker.Endpoint breaker = breakers.forEndpoint(endpoint);
+        try {
+            breaker.acquire();
+        } catch (CircuitBreaker.OpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> one = limiter.forEndpoint(endpoint).acquireAsync().thenCompose(permit -> {
+            long start = System.nanoTime();
+            return signedExchangeAsync(method, url, body, reader).whenComplete((m, ex) -> {
+                if (ex == null) permit.success(); else permit.failure();
+                recordAttempt(endpoint, start, ex == null ? null : unwrap(ex));
+            });
+        });
+        return one.handle((m, ex) -> {
+            if (ex == null) {
+                breaker.onSuccess();
+                return CompletableFuture.completedFuture(m);
             }
-            sb.append('"');
-            return sb.toString();
+            Throwable cause = unwrap(ex);
+            RetryPolicy.Outcome outcome = retry.classify(cause);
+            report(breaker, outcome);
+            if (!retry.shouldRetry(attempt, outcome)) return CompletableFuture.<T>failedFuture(cause);
+            metrics.retry(endpoint);
+            log.warn("Retrying {} (attempt {}): {}", endpoint, attempt + 1, cause.getMessage());
+            Executor later = CompletableFuture.delayedExecutor(retry.backoffMillis(attempt), TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> null, later)
+                    .thenCompose(x -> attemptAsync(method, url, endpoint, body, reader, retry, attempt + 1));
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * The response completes once headers arrive; the body is then streamed through the reader on
+     * the bounded {@link #bodyExecutor} so blocking reads never run on the HttpClient's own threads.
+     */
+    private <T> CompletableFuture<T> signedExchangeAsync(String method, String url, Map<String,Object> body, EnvelopeReader<T> reader) {
+        return ensureTokenAsync()
+                .thenCompose(token -> {
+                    long ts = System.currentTimeMillis();
+                    Signature.JsonSig sig = Signature.buildSignatureJson(
+                            url, token, clientId, clientSecret, ts, body, true, true
+                    );
+                    String finalUrl = Signature.attachCommonParamsToUrl(url, token, ts, sig.signature);
+                    byte[] rawBody = (body == null) ? null : sig.body;
+                    return exchangeAsync(method, finalUrl, true, null, JSON_HEADERS, rawBody,
+                            HttpResponse.BodyHandlers.ofInputStream());
+                })
+                .thenApplyAsync(resp -> {
+                    try {
+                        return readSigned(resp, reader);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, bodyExecutor);
+    }
+
+    /** Async {@link #fetchAllPages}: page 1 first, then at most {@link #pageConcurrency} pages in flight. */
+    private <T> CompletableFuture<List<T>> fetchAllPagesAsync(IntFunction<CompletableFuture<Page<T>>> fetchPage) {
+        return fetchPage.apply(1).thenCompose(page1 -> {
+            List<T> out = page1.rows();
+            int pages = page1.pages();
+            if (pages <= 1) return CompletableFuture.completedFuture(out);
+
+            AtomicReferenceArray<List<T>> rest = new AtomicReferenceArray<>(pages - 1);
+            AtomicInteger nextPage = new AtomicInteger(2);
+            int lanes = Math.min(pageConcurrency, pages - 1);
+            CompletableFuture<?>[] chains = new CompletableFuture<?>[lanes];
+            for (int l = 0; l < lanes; l++) chains[l] = nextPageAsync(fetchPage, nextPage, pages, rest);
+
+            return CompletableFuture.allOf(chains).thenApply(v -> {
+                for (int i = 0; i < rest.length(); i++) out.addAll(rest.get(i));
+                return out;
+            });
+        });
+    }
+
+    /** One lane of the page fan-out: fetch the next unclaimed page, then chain to the one after. */
+    private static <T> CompletableFuture<Void> nextPageAsync(
+            IntFunction<CompletableFuture<Page<T>>> fetchPage,
+            AtomicInteger nextPage,
+            int pages,
+            AtomicReferenceArray<List<T>> rest
+    ) {
+        int p = nextPage.getAndIncrement();
+        if (p > pages) return CompletableFuture.completedFuture(null);
+        return fetchPage.apply(p).thenCompose(page -> {
+            rest.set(p - 2, page.rows());
+            return nextPageAsync(fetchPage, nextPage, pages, rest);
+        });
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
         }
+        return t;
+    }
+
+    // =====================================================================
+    //                           MINI JSON (no deps)
+    // =====================================================================
+
+    static final class MiniJson {
+        static Object parse(String s) { return new Parser(s).parse(); }
+        static String stringify(Object v) { return CanonicalJson.toJson(v); }
 
         private static final class Parser {
             private final String s; private int i;
@@ -516,7 +1215,7 @@ public class GDMSAPI {
                 exp('{'); Map<String,Object> m = new LinkedHashMap<>(); skip();
                 if (peek() == '}') { i++; return m; }
                 while (true) {
-                    String k = str(); skip(); exp(':'); Object v = val(); m.put(k, v); skip();
+                    skip(); String k = str(); skip(); exp(':'); Object v = val(); m.put(k, v); skip();
                     char c = exp(',', '}'); if (c == '}') break;
                 } return m;
             }
@@ -589,24 +1288,27 @@ public class GDMSAPI {
     public static final class Signature {
         public static final class JsonSig {
             public final String signature, bodySha256, canonical;
-            public JsonSig(String s, String b, String c) { signature = s; bodySha256 = b; canonical = c; }
+            public final byte[] body;       // normalized body that was hashed (empty when there is none)
+            public JsonSig(String s, String b, String c, byte[] body) { signature = s; bodySha256 = b; canonical = c; this.body = body; }
         }
         public static final class JsonNorm {
-            public final String rawBody; public final String bodySha256;
-            public JsonNorm(String r, String b) { rawBody = r; bodySha256 = b; }
+            public final byte[] rawBytes; public final String bodySha256;
+            public JsonNorm(byte[] r, String b) { rawBytes = r; bodySha256 = b; }
+            public String rawBody() { return new String(rawBytes, StandardCharsets.UTF_8); }
         }
         public static final class FormSig {
             public final String signature, canonical;
             public FormSig(String s, String c) { signature = s; canonical = c; }
         }
 
+        /** Canonical body bytes and their SHA-256; the same array is what gets sent. */
         public static JsonNorm normalizeBodyJson(Object body) {
-            if (body == null) return new JsonNorm("", null);
-            String raw;
-            if (body instanceof String) raw = (String) body;
-            else if (body instanceof byte[]) raw = new String((byte[]) body, StandardCharsets.UTF_8);
-            else raw = MiniJson.stringify(body);
-            return new JsonNorm(raw, sha256Hex(raw.getBytes(StandardCharsets.UTF_8)));
+            if (body == null) return new JsonNorm(new byte[0], null);
+            byte[] raw;
+            if (body instanceof String) raw = ((String) body).getBytes(StandardCharsets.UTF_8);
+            else if (body instanceof byte[]) raw = (byte[]) body;
+            else raw = CanonicalJson.toBytes(body);
+            return new JsonNorm(raw, sha256Hex(raw));
         }
 
         public static JsonSig buildSignatureJson(
@@ -619,21 +1321,38 @@ public class GDMSAPI {
                 boolean includeUrlParamsInSignature,
                 boolean caseSensitiveSort
         ) {
-            Map<String,String> sigParams = new LinkedHashMap<>();
-            if (includeUrlParamsInSignature) sigParams.putAll(parseQuery(url));
-            sigParams.put("access_token", accessToken);
-            sigParams.put("client_id", clientId);
-            sigParams.put("client_secret", clientSecret);
-            sigParams.put("timestamp", String.valueOf(timestampMs));
-
             JsonNorm norm = normalizeBodyJson(body);
-            String canonical = kvJoin(sigParams, caseSensitiveSort);
+            String canonical;
+            if (!includeUrlParamsInSignature || url.indexOf('?') < 0) {
+                // Only the four fixed keys: their sorted order never changes (either sort mode).
+                canonical = "access_token=" + accessToken + staticParams(clientId, clientSecret) + timestampMs;
+            } else {
+                Map<String,String> sigParams = new LinkedHashMap<>(parseQuery(url));
+                sigParams.put("access_token", accessToken);
+                sigParams.put("client_id", clientId);
+                sigParams.put("client_secret", clientSecret);
+                sigParams.put("timestamp", String.valueOf(timestampMs));
+                canonical = kvJoin(sigParams, caseSensitiveSort);
+            }
             String wrapped = (norm.bodySha256 != null && !norm.bodySha256.isEmpty())
                     ? wrapAmpersands(canonical + "&" + norm.bodySha256)
                     : wrapAmpersands(canonical);
             String signature = sha256Hex(wrapped.getBytes(StandardCharsets.UTF_8));
             //System.out.println(signature);
-            return new JsonSig(signature, norm.bodySha256, canonical);
+            return new JsonSig(signature, norm.bodySha256, canonical, norm.rawBytes);
+        }
+
+        /** {@code &client_id=..&client_secret=..&timestamp=}, rebuilt only when the credentials change. */
+        private static volatile String[] staticParams = {null, null, null};
+
+        private static String staticParams(String clientId, String clientSecret) {
+            String[] c = staticParams;
+            if (!Objects.equals(c[0], clientId) || !Objects.equals(c[1], clientSecret)) {
+                c = new String[] {clientId, clientSecret,
+                        "&client_id=" + clientId + "&client_secret=" + clientSecret + "&timestamp="};
+                staticParams = c;
+            }
+            return c[2];
         }
 
         public static FormSig buildSignatureForm(
@@ -677,6 +1396,11 @@ public class GDMSAPI {
 
         public static String attachCommonParamsToUrl(String url, String accessToken, Long timestampMs, String signature) {
             long ts = (timestampMs != null) ? timestampMs : System.currentTimeMillis();
+            if (url.indexOf('?') < 0 && url.indexOf('#') < 0 && url.indexOf('@') < 0) {
+                // nothing to merge: skip the URI parse/rebuild
+                return url + "?access_token=" + encode(accessToken) + "&timestamp=" + ts
+                        + "&signature=" + encode(signature);
+            }
             Map<String,String> q = parseQuery(url);
             q.put("access_token", accessToken);
             q.put("timestamp", String.valueOf(ts));
@@ -802,18 +1526,28 @@ public class GDMSAPI {
     private static String truncate(String s, int n) { return (s == null || s.length() <= n) ? s : s.substring(0, n) + "..."; }
 
     // Hash helpers
-    private static String md5Hex(byte[] data) {
-        try { MessageDigest md = MessageDigest.getInstance("MD5"); return toHex(md.digest(data)); }
+    // Digests are not thread-safe; one per thread avoids a provider lookup on every signed call.
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> digest("MD5"));
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> digest("SHA-256"));
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static MessageDigest digest(String algorithm) {
+        try { return MessageDigest.getInstance(algorithm); }
         catch (Exception e) { throw new RuntimeException(e); }
     }
+    private static String md5Hex(byte[] data) {
+        return toHex(MD5.get().digest(data));
+    }
     private static String sha256Hex(byte[] data) {
-        try { MessageDigest md = MessageDigest.getInstance("SHA-256"); return toHex(md.digest(data)); }
-        catch (Exception e) { throw new RuntimeException(e); }
+        return toHex(SHA256.get().digest(data));
     }
     private static String toHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) sb.append(String.format("%02x", b));
-        return sb.toString();
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            out[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
     }
 
     @SuppressWarnings("unchecked")
@@ -822,13 +1556,6 @@ public class GDMSAPI {
         if (o instanceof Map) return (Map<String,Object>) o;
         throw new IllegalStateException("Expected Map, got " + o.getClass());
     }
-    private static List<Map<String,Object>> castListMap(Object o) {
-        List<Map<String,Object>> out = new ArrayList<>();
-        if (o == null) return out;
-        if (!(o instanceof List)) throw new IllegalStateException("Expected List, got " + o.getClass());
-        for (Object x : (List<?>) o) out.add(castMap(x));
-        return out;
-    }
     private static Map<String,Object> mapOf(Object... kv) {
         Map<String,Object> m = new LinkedHashMap<>();
         for (int i = 0; i < kv.length; i += 2) m.put(String.valueOf(kv[i]), kv[i + 1]);
@@ -842,18 +1569,9 @@ public class GDMSAPI {
     }
 
     // ---------- File I/O helpers ----------
-    private static void writeJson(String file, Object data) {
-        try {
-            String compact = MiniJson.stringify(data);
-            String pretty  = prettyJson(compact);
-            java.nio.file.Files.writeString(
-                    java.nio.file.Path.of(file),
-                    pretty + System.lineSeparator(),
-                    java.nio.charset.StandardCharsets.UTF_8
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Failed writing " + file + ": " + e.getMessage(), e);
-        }
+    /** Hands the payload to the dump sink; written later, off this thread (or not at all if dumps are off). */
+    private void writeJson(String file, Object data) {
+        dumps.submit(file, data);
     }
 
     // ---------- Slug helper (used in filenames) ----------
@@ -863,10 +1581,15 @@ public class GDMSAPI {
         return s.isEmpty() ? "unnamed" : (s.length() > 80 ? s.substring(0, 80) : s);
     }
 
-    private List<Map<String, Object>> selected;
+    /** Everything one interactive run produced; passed from step to step instead of kept on the client. */
+    public record SelectedOrgsRun(
+            List<Map<String, Object>> selected,
+            List<Map<String, Object>> devices,
+            Map<String, Object> statusPayload
+    ) {}
 
     // ---------- Interactive flow ----------
-    public void fetchDevicesForSelectedOrgsInteractive() {
+    public SelectedOrgsRun fetchDevicesForSelectedOrgsInteractive() {
         System.out.println("Step 1: Fetching organizations...");
         java.util.List<java.util.Map<String, Object>> orgs = listOrgsAll(1000);
         writeJson("orgs.json", mapOf("data", orgs));
@@ -925,8 +1648,6 @@ public class GDMSAPI {
             System.out.println(" - " + s.get("id") + ": " + s.get("organization"));
         }
 
-        this.selected = selected;
-
         java.util.List<java.util.Map<String, Object>> allDevices = new java.util.ArrayList<>();
 
         System.out.println("\nStep 2: Fetching device list for selected orgs...");
@@ -951,32 +1672,19 @@ public class GDMSAPI {
         writeJson("devices_by_org.selected.json", mapOf("data", allDevices));
         //System.out.println("💾 Saved → devices_by_org.selected.json");
 
-        fetchDeviceAccountStatusForSelectedOrgs(allDevices, selected);
+        Map<String, Object> statusPayload = fetchDeviceAccountStatusForSelectedOrgs(allDevices, selected);
+        return new SelectedOrgsRun(selected, allDevices, statusPayload);
     }
 
     /** Step 4: SIP account list for an org (paged). */
     public List<Map<String,Object>> fetchSIPAccountsForOrg(int orgId, int pageSize) {
-        String url = "https://" + gdmsDomain + "/oapi/" + DEFAULT_API_VERSION + "/sip/account/list";
-        List<Map<String,Object>> out = new ArrayList<>();
+        String url = baseUrl + API_PREFIX + "/sip/account/list";
         Map<String,Object> body = new LinkedHashMap<>();
         body.put("order", "");
         body.put("pageNum", 1);
         body.put("pageSize", pageSize);
         body.put("orgId", orgId);
-
-        Map<String,Object> page1 = postJsonSigned(url, body);
-        Map<String,Object> data = castMap(page1.get("data"));
-        out.addAll(castListMap(data.get("result")));
-
-        int pages = toInt(data.get("pages"), 1);
-        for (int p = 2; p <= pages; p++) {
-            body.put("pageNum", p);
-            Map<String,Object> nextPage = postJsonSigned(url, body);
-            Map<String,Object> nextData = castMap(nextPage.get("data"));
-            out.addAll(castListMap(nextData.get("result")));
-        }
-
-        return out;
+        return fetchAllPages(p -> signedPage("POST", url, withPageNum(body, p), JsonReader::nextObjectMap));
     }
 
     private Map<String, Object> mergeDeviceAndStatus(Map<String, Object> device, Map<String, Object> statusResponse, int orgId, String orgName) {
@@ -996,91 +1704,27 @@ public class GDMSAPI {
         return merged;
     }
 
-    private static String prettyJson(String json) {
-        if (json == null || json.isBlank()) return json;
-        StringBuilder out = new StringBuilder(json.length() + 128);
-        int indent = 0;
-        boolean inString = false;
-        boolean escape = false;
-
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-
-            if (inString) {
-                out.append(c);
-                if (escape) {
-                    escape = false;
-                } else if (c == '\\') {
-                    escape = true;
-                } else if (c == '"') {
-                    inString = false;
-                }
-                continue;
-            }
-
-            switch (c) {
-                case ' ':
-                case '\t':
-                case '\r':
-                case '\n':
-                    break;
-                case '"':
-                    inString = true;
-                    out.append(c);
-                    break;
-                case '{':
-                case '[':
-                    out.append(c).append('\n');
-                    indent++;
-                    appendIndent(out, indent);
-                    break;
-                case '}':
-                case ']':
-                    out.append('\n');
-                    indent = Math.max(0, indent - 1);
-                    appendIndent(out, indent);
-                    out.append(c);
-                    break;
-                case ',':
-                    out.append(c).append('\n');
-                    appendIndent(out, indent);
-                    break;
-                case ':':
-                    out.append(c).append(' ');
-                    break;
-                default:
-                    out.append(c);
-            }
-        }
-        return out.toString();
-    }
-
-    private static void appendIndent(StringBuilder sb, int indent) {
-        for (int i = 0; i < indent; i++) sb.append("  ");
-    }
-
-    public Map<String, Object> statusPayload = new LinkedHashMap<>();
-    public void fetchDeviceAccountStatusForSelectedOrgs(
+    /** Status crawl over Map rows; returns this call's {@code success}/{@code failures}/{@code meta} payload. */
+    public Map<String, Object> fetchDeviceAccountStatusForSelectedOrgs(
             List<Map<String, Object>> allDevices,
             List<Map<String, Object>> selected
     ) {
-        List<Map<String, Object>> statusSuccessAll = new ArrayList<>();
-        List<Map<String, Object>> statusFailuresAll = new ArrayList<>();
+        Queue<Map<String, Object>> statusSuccessAll = new ConcurrentLinkedQueue<>();
+        Queue<Map<String, Object>> statusFailuresAll = new ConcurrentLinkedQueue<>();
 
         if (selected == null || selected.isEmpty()) {
             System.out.println("No organizations selected. Skipping device account status fetch.");
-            return;
+            return mapOf("success", List.of(), "failures", List.of(), "meta", mapOf("total", 0, "success", 0, "failures", 0));
         }
 
         System.out.println("\nStep 3: Fetching device account status for selected orgs...");
 
+        BoundedFanOut fanOut = statusFanOut;
         Map<Integer, List<Map<String, Object>>> devicesByOrg = new HashMap<>();
         for (Map<String, Object> device : allDevices) {
             int orgId = toInt(device.get("orgId"));
             devicesByOrg.computeIfAbsent(orgId, k -> new ArrayList<>()).add(device);
         }
-        ExecutorService executor = Executors.newFixedThreadPool(20);
-        List<Future<Void>> futures = new ArrayList<>();
         for (Map<String, Object> s : selected) {
             int oid = toInt(s.get("id"));
             String oname = String.valueOf(s.get("organization"));
@@ -1091,53 +1735,31 @@ public class GDMSAPI {
                 continue;
             }
             System.out.println("\n=== Org " + oid + " (" + oname + ") — devices: " + devices.size() + " ===");
-            for (Map<String, Object> device : devices) {
-                futures.add(executor.submit(() -> {
-                    String mac = String.valueOf(device.get("mac"));
-                    if (mac == null || mac.isEmpty()) return null;
-                    try {
-                        System.out.println("Fetching account status for MAC: " + mac);
-                        Map<String, Object> statusResponse = getDeviceAccountStatus(mac);
-                        System.out.println("Status Response: " + statusResponse);
-
-                        if (statusResponse != null && statusResponse.containsKey("data")) {
-                            Map<String, Object> mergedDevice = mergeDeviceAndStatus(device, statusResponse, oid, oname);
-
-                            synchronized (statusSuccessAll) {
-                                statusSuccessAll.add(mergedDevice);
-                            }
-
-                            System.out.println("✅ " + mac + " | " + device.get("deviceName"));
-                        } else {
-                            System.out.println("No status data for MAC: " + mac);
-                            device.put("error", "No status data");
-
-                            synchronized (statusFailuresAll) {
-                                statusFailuresAll.add(device);
-                            }
-                        }
-
-                    } catch (Exception e) {
-                        System.out.println("❌ " + mac + " | " + e.getMessage());
-                        device.put("error", e.getMessage());
-                        synchronized (statusFailuresAll) {
-                            statusFailuresAll.add(device);
-                        }
+            fanOut.forEach(devices, device -> {
+                String mac = String.valueOf(device.get("mac"));
+                if (mac == null || mac.isEmpty()) return;
+                try {
+                    System.out.println("Fetching account status for MAC: " + mac);
+                    Map<String, Object> statusResponse = getDeviceAccountStatus(mac);
+                    System.out.println("Status Response: " + statusResponse);
+
+                    if (statusResponse != null && statusResponse.containsKey("data")) {
+                        statusSuccessAll.add(mergeDeviceAndStatus(device, statusResponse, oid, oname));
+                        System.out.println("✅ " + mac + " | " + device.get("deviceName"));
+                    } else {
+                        System.out.println("No status data for MAC: " + mac);
+                        statusFailuresAll.add(withError(device, "No status data"));
                     }
 
-                    return null;
-                }));
-            }
-        }
-        try {
-            for (Future<Void> future : futures) {
-                future.get();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            e.printStackTrace();
+                } catch (Exception e) {
+                    log.warn("Status call failed for {}: {}", mac, e.getMessage());
+                    statusFailuresAll.add(withError(device, e.getMessage()));
+                }
+            });
         }
-        statusPayload.put("success", statusSuccessAll);
-        statusPayload.put("failures", statusFailuresAll);
+        Map<String, Object> statusPayload = new LinkedHashMap<>();
+        statusPayload.put("success", new ArrayList<>(statusSuccessAll));
+        statusPayload.put("failures", new ArrayList<>(statusFailuresAll));
         statusPayload.put("meta", mapOf(
                 "total", statusSuccessAll.size() + statusFailuresAll.size(),
                 "success", statusSuccessAll.size(),
@@ -1145,12 +1767,20 @@ public class GDMSAPI {
         ));
         writeJson("status_by_org.all_devices.json", statusPayload);
         System.out.println("💾 Saved → status_by_org.all_devices.json");
-        executor.shutdown();
+        return statusPayload;
+    }
+
+    /** Copy of a device row tagged with its error; the caller's row is left untouched. */
+    private static Map<String, Object> withError(Map<String, Object> device, String error) {
+        Map<String, Object> failed = new LinkedHashMap<>(device);
+        failed.put("error", error);
+        return failed;
     }
-    java.util.List<Map<String, Object>> allSIPAccounts = new java.util.ArrayList<>();
-    public void fetchSIPAccountListForSelectedOrgs() {
+
+    public Map<String, Object> fetchSIPAccountListForSelectedOrgs(SelectedOrgsRun run) {
+        List<Map<String, Object>> allSIPAccounts = new ArrayList<>();
         System.out.println("\nStep 3: Fetching SIP account list for selected orgs...");
-        for (var s : selected) {
+        for (var s : run.selected()) {
             int oid = toInt(s.get("id"));
             String oname = String.valueOf(s.get("organization"));
             try {
@@ -1170,11 +1800,25 @@ public class GDMSAPI {
         }
         writeJson("sip_accounts_by_org.selected.json", mapOf("data", allSIPAccounts));
         System.out.println("Saved → sip_accounts_by_org.selected.json");
-        mapSIPAccountsToDevices(statusPayload, allSIPAccounts);
+        return dumpSIPAccountsWithDevices(mapSIPAccountsToDevices(run.statusPayload(), allSIPAccounts));
     }
     public static Map<String, Object> mapSIPAccountsToDevices(
             Map<String, Object> statusPayload,
             List<Map<String, Object>> allSIPAccounts
+    ) {
+        return joinSIPAccountsToDevices(statusPayload, allSIPAccounts);
+    }
+
+    /** Writes a {@link #mapSIPAccountsToDevices} result to sip_accounts_with_devices.json (through the dump sink). */
+    private Map<String, Object> dumpSIPAccountsWithDevices(Map<String, Object> result) {
+        writeJson("sip_accounts_with_devices.json", result);
+        return result;
+    }
+
+    /** The join behind {@link #mapSIPAccountsToDevices} (no I/O; also driven by the JMH benchmarks). */
+    static Map<String, Object> joinSIPAccountsToDevices(
+            Map<String, Object> statusPayload,
+            List<Map<String, Object>> allSIPAccounts
     ) {
         List<Map<String, Object>> resultData = new ArrayList<>();
 
@@ -1249,7 +1893,6 @@ public class GDMSAPI {
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("data", resultData);
-        writeJson("sip_accounts_with_devices.json", result);
         return result;
     }
 
@@ -1267,8 +1910,11 @@ public class GDMSAPI {
                 true
         );
         client.startRefreshLoop(20, 120);
-        client.fetchDevicesForSelectedOrgsInteractive();
-        client.fetchSIPAccountListForSelectedOrgs();
+        try (DumpSink dumps = new DumpSink(Path.of(""), 0)) {   // close() waits for the files
+            client.setDumpSink(dumps);
+            SelectedOrgsRun run = client.fetchDevicesForSelectedOrgsInteractive();
+            client.fetchSIPAccountListForSelectedOrgs(run);
+        }
         client.stopRefreshLoop();
     }
 }
@@ -0,0 +1,20 @@
+package com.example.backend.gdms;
+
+/**
+ * A GDMS call that reached the server but did not return a usable envelope:
+ * non-200 HTTP status, a body that is not a JSON object, or {@code retCode != 0}.
+ */
+public class GdmsCallException extends RuntimeException {
+
+    private final int httpStatus;     // -1 when the HTTP exchange itself succeeded (bad body / retCode)
+    private final Integer retCode;    // null unless the envelope was parsed
+
+    public GdmsCallException(String message, int httpStatus, Integer retCode) {
+        super(message);
+        this.httpStatus = httpStatus;
+        this.retCode = retCode;
+    }
+
+    public int getHttpStatus() { return httpStatus; }
+    public Integer getRetCode() { return retCode; }
+}
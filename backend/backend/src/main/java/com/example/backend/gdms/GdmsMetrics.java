@@ -0,0 +1,39 @@
+package com.example.backend.gdms;
+
+/**
+ * Hooks through which {@link GDMSAPI} reports what it does, so the client itself stays free of
+ * any metrics library. Every method has an empty default; {@link #NOOP} records nothing.
+ * Implementations are called on request threads and must not block.
+ */
+public interface GdmsMetrics {
+
+    GdmsMetrics NOOP = new GdmsMetrics() {};
+
+    /**
+     * One attempt at a signed call, timed from sending until the envelope was read.
+     * {@code outcome} is {@code ok}, {@code retcode}, {@code http_4xx}, {@code http_5xx} or {@code error}.
+     */
+    default void call(String endpoint, String outcome, long nanos) {}
+
+    /** A failed attempt is about to be retried. */
+    default void retry(String endpoint) {}
+
+    /** GDMS answered HTTP 200 with {@code retCode != 0}. */
+    default void retCodeFailure(String endpoint, int retCode) {}
+
+    /** A token request finished; {@code grant} is {@code password} or {@code refresh_token}. */
+    default void tokenGrant(String grant, boolean ok, long nanos) {}
+
+    /** One status fan-out over a device list. */
+    default void statusCrawl(int devices, int failures, long nanos) {}
+
+    /** Outcome label for a failed attempt. */
+    static String outcomeOf(Throwable t) {
+        if (t instanceof GdmsCallException e) {
+            if (e.getRetCode() != null) return "retcode";
+            if (e.getHttpStatus() >= 500) return "http_5xx";
+            if (e.getHttpStatus() >= 400) return "http_4xx";
+        }
+        return "error";
+    }
+}
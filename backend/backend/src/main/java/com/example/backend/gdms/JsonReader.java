@@ -0,0 +1,364 @@
+package com.example.backend.gdms;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pull-style JSON reader working directly on UTF-8 bytes from an InputStream.
+ *
+ * The body is never materialized as a String: bytes are read through an 8 KB window, strings are
+ * decoded from that window (ASCII runs straight into a Latin-1 String, everything else through one
+ * reused char buffer) and numbers are accumulated from digits without substring/parse round trips.
+ * Generic values come back with the same types as {@link GDMSAPI.MiniJson}: LinkedHashMap,
+ * ArrayList, String, Integer/Long/Double, Boolean, null.
+ *
+ * Commas are consumed by {@link #nextName()} and {@link #nextElement()}, so callers only
+ * bracket containers and read values. Syntax errors throw {@link IllegalStateException}, I/O
+ * errors {@link UncheckedIOException}.
+ */
+final class JsonReader implements Closeable {
+
+    private final InputStream in;
+    private final byte[] buf;
+    private int pos;
+    private int limit;
+    private long consumed;                     // bytes before buf[0], for error offsets
+    private char[] chars = new char[64];       // reused for escaped / non-ASCII strings
+
+    JsonReader(InputStream in) {
+        this.in = in;
+        this.buf = new byte[8192];
+    }
+
+    JsonReader(byte[] bytes) {
+        this.in = new ByteArrayInputStream(new byte[0]);
+        this.buf = bytes;
+        this.limit = bytes.length;
+    }
+
+    // ---------------------------------------------------------------- structure
+
+    void beginObject() { expect('{'); }
+
+    /** Name of the next member, or null after consuming the closing '}'. */
+    String nextName() {
+        int c = skipWs();
+        if (c == '}') { pos++; return null; }
+        if (c == ',') { pos++; c = skipWs(); }
+        if (c != '"') throw err("Expected member name");
+        pos++;
+        String name = readStringBody();
+        expect(':');
+        return name;
+    }
+
+    void beginArray() { expect('['); }
+
+    /** True if another element follows, false after consuming the closing ']'. */
+    boolean nextElement() {
+        int c = skipWs();
+        if (c == ']') { pos++; return false; }
+        if (c == ',') { pos++; skipWs(); }
+        return true;
+    }
+
+    /** Next significant character without consuming it ('{', '[', '"', 't', 'f', 'n', '-' or a digit). */
+    char peek() {
+        int c = skipWs();
+        if (c < 0) throw err("Unexpected end");
+        return (char) c;
+    }
+
+    // ---------------------------------------------------------------- scalars
+
+    /** Consume a {@code null} literal if it is next. */
+    boolean nextNull() {
+        if (peek() != 'n') return false;
+        literal("null");
+        return true;
+    }
+
+    /** String value; null for a JSON null; numbers and booleans are returned as their text. */
+    String nextString() {
+        char c = peek();
+        if (c == '"') { pos++; return readStringBody(); }
+        if (c == 'n') { literal("null"); return null; }
+        if (c == 't') { literal("true"); return "true"; }
+        if (c == 'f') { literal("false"); return "false"; }
+        return String.valueOf(readNumber());
+    }
+
+    /** Integer value, {@code def} for null; numeric strings are accepted, anything else gives {@code def}. */
+    int nextInt(int def) {
+        char c = peek();
+        if (c == '-' || (c >= '0' && c <= '9')) return readNumber().intValue();
+        if (c == 'n') { literal("null"); return def; }
+        if (c == '"') {
+            pos++;
+            String s = readStringBody().trim();
+            try { return Integer.parseInt(s); } catch (NumberFormatException e) { return def; }
+        }
+        skipValue();
+        return def;
+    }
+
+    /** Long value, {@code def} for null or anything non-numeric (numeric strings are accepted). */
+    long nextLong(long def) {
+        char c = peek();
+        if (c == '-' || (c >= '0' && c <= '9')) return readNumber().longValue();
+        if (c == '"') {
+            pos++;
+            String s = readStringBody().trim();
+            try { return Long.parseLong(s); } catch (NumberFormatException e) { return def; }
+        }
+        skipValue();
+        return def;
+    }
+
+    /** Like {@link #nextInt(int)} but null when absent or not numeric. */
+    Integer nextIntOrNull() {
+        char c = peek();
+        if (c == '-' || (c >= '0' && c <= '9')) return readNumber().intValue();
+        if (c == '"') {
+            pos++;
+            String s = readStringBody().trim();
+            try { return Integer.valueOf(s); } catch (NumberFormatException e) { return null; }
+        }
+        skipValue();
+        return null;
+    }
+
+    /** Any value as Map/List/String/Number/Boolean/null. */
+    Object nextValue() {
+        char c = peek();
+        switch (c) {
+            case '{': {
+                Map<String, Object> m = new LinkedHashMap<>();
+                beginObject();
+                for (String k; (k = nextName()) != null; ) m.put(k, nextValue());
+                return m;
+            }
+            case '[': {
+                List<Object> a = new ArrayList<>();
+                beginArray();
+                while (nextElement()) a.add(nextValue());
+                return a;
+            }
+            case '"': pos++; return readStringBody();
+            case 't': literal("true"); return Boolean.TRUE;
+            case 'f': literal("false"); return Boolean.FALSE;
+            case 'n': literal("null"); return null;
+            default: return readNumber();
+        }
+    }
+
+    /** Object value as a Map (null for a JSON null). */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> nextObjectMap() {
+        if (nextNull()) return null;
+        if (peek() != '{') throw err("Expected object");
+        return (Map<String, Object>) nextValue();
+    }
+
+    /** Skip the next value, nested containers included, without building it. */
+    void skipValue() {
+        char c = peek();
+        if (c == '{') {
+            beginObject();
+            while (nextName() != null) skipValue();
+        } else if (c == '[') {
+            beginArray();
+            while (nextElement()) skipValue();
+        } else if (c == '"') {
+            pos++;
+            skipStringBody();
+        } else if (c == 't') {
+            literal("true");
+        } else if (c == 'f') {
+            literal("false");
+        } else if (c == 'n') {
+            literal("null");
+        } else {
+            readNumber();
+        }
+    }
+
+    /** True once only whitespace remains. */
+    boolean atEnd() {
+        return skipWs() < 0;
+    }
+
+    @Override
+    public void close() {
+        try { in.close(); } catch (IOException ignored) {}
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    /** Skip whitespace; returns the next byte (not consumed) or -1 at end of input. */
+    private int skipWs() {
+        while (true) {
+            if (pos >= limit && !fill()) return -1;
+            byte b = buf[pos];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') pos++;
+            else return b & 0xFF;
+        }
+    }
+
+    private void expect(char c) {
+        if (skipWs() != c) throw err("Expected " + c);
+        pos++;
+    }
+
+    private void literal(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (pos >= limit && !fill()) throw err("Unexpected end");
+            if (buf[pos++] != word.charAt(i)) throw err("Bad literal, expected " + word);
+        }
+    }
+
+    /** Read string content after the opening quote, consuming the closing quote. */
+    private String readStringBody() {
+        // Fast path: plain ASCII run fully inside the window.
+        for (int i = pos; i < limit; i++) {
+            byte b = buf[i];
+            if (b == '"') {
+                String s = new String(buf, pos, i - pos, StandardCharsets.ISO_8859_1);
+                pos = i + 1;
+                return s;
+            }
+            if (b == '\\' || b < 0x20) break;   // escape, control char, or non-ASCII (negative byte)
+        }
+        return readStringSlow();
+    }
+
+    private String readStringSlow() {
+        int n = 0;
+        while (true) {
+            if (pos >= limit && !fill()) throw err("Unterminated string");
+            int b = buf[pos++] & 0xFF;
+            if (b == '"') return new String(chars, 0, n);
+            if (n + 2 > chars.length) chars = java.util.Arrays.copyOf(chars, chars.length * 2);
+            if (b == '\\') {
+                int e = nextByte();
+                switch (e) {
+                    case '"': chars[n++] = '"'; break;
+                    case '\\': chars[n++] = '\\'; break;
+                    case '/': chars[n++] = '/'; break;
+                    case 'b': chars[n++] = '\b'; break;
+                    case 'f': chars[n++] = '\f'; break;
+                    case 'n': chars[n++] = '\n'; break;
+                    case 'r': chars[n++] = '\r'; break;
+                    case 't': chars[n++] = '\t'; break;
+                    case 'u': chars[n++] = (char) ((hex(nextByte()) << 12) | (hex(nextByte()) << 8)
+                            | (hex(nextByte()) << 4) | hex(nextByte())); break;
+                    default: chars[n++] = (char) e;
+                }
+            } else if (b < 0x80) {
+                chars[n++] = (char) b;
+            } else if (b < 0xE0) {
+                chars[n++] = (char) (((b & 0x1F) << 6) | (nextByte() & 0x3F));
+            } else if (b < 0xF0) {
+                chars[n++] = (char) (((b & 0x0F) << 12) | ((nextByte() & 0x3F) << 6) | (nextByte() & 0x3F));
+            } else {
+                int cp = ((b & 0x07) << 18) | ((nextByte() & 0x3F) << 12) | ((nextByte() & 0x3F) << 6) | (nextByte() & 0x3F);
+                chars[n++] = Character.highSurrogate(cp);
+                chars[n++] = Character.lowSurrogate(cp);
+            }
+        }
+    }
+
+    private void skipStringBody() {
+        while (true) {
+            if (pos >= limit && !fill()) throw err("Unterminated string");
+            byte b = buf[pos++];
+            if (b == '"') return;
+            if (b == '\\') nextByte();
+        }
+    }
+
+    private int nextByte() {
+        if (pos >= limit && !fill()) throw err("Unexpected end");
+        return buf[pos++] & 0xFF;
+    }
+
+    private int hex(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        throw err("Bad \\u escape");
+    }
+
+    /** Integer/Long when integral and in range, Double otherwise (same as MiniJson). */
+    private Number readNumber() {
+        boolean neg = false;
+        if (pos >= limit && !fill()) throw err("Unexpected end");
+        if (buf[pos] == '-') { neg = true; pos++; }
+        long v = 0;
+        int digits = 0;
+        StringBuilder text = null;   // only for fractions / exponents / integers beyond long
+        while (true) {
+            if (pos >= limit && !fill()) break;
+            byte b = buf[pos];
+            if (b >= '0' && b <= '9') {
+                long next = v * 10 + (b - '0');
+                if (text != null) text.append((char) b);
+                else if (v > Long.MAX_VALUE / 10 || next < 0) {      // beyond long: read as a double
+                    text = new StringBuilder().append(neg ? "-" : "").append(v).append((char) b);
+                } else v = next;
+                digits++;
+                pos++;
+            } else if (b == '.' || b == 'e' || b == 'E' || b == '+' || (b == '-' && digits > 0)) {
+                if (text == null) text = new StringBuilder().append(neg ? "-" : "").append(v);
+                text.append((char) b);
+                pos++;
+                while (true) {
+                    if (pos >= limit && !fill()) break;
+                    byte d = buf[pos];
+                    if ((d >= '0' && d <= '9') || d == '.' || d == 'e' || d == 'E' || d == '+' || d == '-') {
+                        text.append((char) d);
+                        pos++;
+                    } else break;
+                }
+                break;
+            } else break;
+        }
+        if (digits == 0) throw err("Bad number");
+        if (text != null) {
+            try { return Double.parseDouble(text.toString()); }
+            catch (NumberFormatException e) { throw err("Bad number " + text); }
+        }
+        long lv = neg ? -v : v;
+        if (lv >= Integer.MIN_VALUE && lv <= Integer.MAX_VALUE) return (int) lv;
+        return lv;
+    }
+
+    /** Refill the window; the unread tail (never more than a few bytes here) is kept. */
+    private boolean fill() {
+        int keep = limit - pos;
+        if (keep > 0) System.arraycopy(buf, pos, buf, 0, keep);
+        consumed += pos;
+        pos = 0;
+        limit = keep;
+        try {
+            int r = in.read(buf, limit, buf.length - limit);
+            if (r <= 0) return false;
+            limit += r;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IllegalStateException err(String m) {
+        return new IllegalStateException(m + " at " + (consumed + pos));
+    }
+}
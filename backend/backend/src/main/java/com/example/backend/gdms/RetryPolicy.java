@@ -0,0 +1,83 @@
+package com.example.backend.gdms;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Classified retries with exponential backoff, full jitter and a shared retry budget.
+ *
+ * The budget is a token bucket: every first attempt deposits {@code budgetRatio} tokens
+ * (capped), every retry withdraws one. When GDMS is failing broadly the bucket drains and calls
+ * fail on their first error instead of multiplying upstream load.
+ */
+final class RetryPolicy {
+
+    /** How a failed attempt should be treated. */
+    enum Outcome {
+        /** Transient upstream trouble: retry, and count against the circuit breaker. */
+        RETRY,
+        /** GDMS answered but refused (4xx, retCode): fail now, breaker sees a healthy answer. */
+        FAIL,
+        /** Local problem or breaker already open: fail now, breaker not informed. */
+        ABORT
+    }
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Set<Integer> retryableRetCodes;
+    private final double budgetRatio;
+    private final double budgetMax;
+    private double budget;
+
+    RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, Set<Integer> retryableRetCodes) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.retryableRetCodes = Set.copyOf(retryableRetCodes);
+        this.budgetRatio = 0.2;
+        this.budgetMax = 50;
+        this.budget = budgetMax;
+    }
+
+    int maxAttempts() { return maxAttempts; }
+
+    Outcome classify(Throwable t) {
+        if (t instanceof CircuitBreaker.OpenException) return Outcome.ABORT;
+        if (t instanceof GdmsCallException) {
+            GdmsCallException g = (GdmsCallException) t;
+            int http = g.getHttpStatus();
+            if (http == 429 || http >= 500) return Outcome.RETRY;
+            if (http > 0) return Outcome.FAIL;
+            if (g.getRetCode() == null) return Outcome.RETRY;           // unreadable body
+            return retryableRetCodes.contains(g.getRetCode()) ? Outcome.RETRY : Outcome.FAIL;
+        }
+        if (t instanceof HttpTimeoutException || t instanceof IOException) return Outcome.RETRY;
+        return Outcome.ABORT;
+    }
+
+    /** Called once per logical call (not per attempt). */
+    synchronized void deposit() {
+        budget = Math.min(budgetMax, budget + budgetRatio);
+    }
+
+    /** Whether another attempt may be made after {@code attempt} failed with {@code outcome}. */
+    boolean shouldRetry(int attempt, Outcome outcome) {
+        if (outcome != Outcome.RETRY || attempt >= maxAttempts) return false;
+        synchronized (this) {
+            if (budget < 1) return false;
+            budget -= 1;
+            return true;
+        }
+    }
+
+    /** Full-jitter backoff before attempt {@code attempt + 1}: uniform in [0, min(max, base * 2^(attempt-1))]. */
+    long backoffMillis(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    synchronized double remainingBudget() { return budget; }
+}
@@ -0,0 +1,42 @@
+package com.example.backend.gdms;
+
+/**
+ * One row of {@code /sip/account/list}. {@code status} is kept as text because GDMS has sent
+ * both {@code 0/1} and {@code Up/Down} here.
+ */
+public record SipAccountRow(
+        long id,
+        String orgId,
+        String sipUserId,
+        String accountName,
+        String displayName,
+        String sipServer,
+        String serverName,
+        String status,
+        String modifyTime
+) {
+
+    static SipAccountRow read(JsonReader r) {
+        if (r.nextNull()) return null;
+        long id = 0;
+        String orgId = null, sipUserId = null, accountName = null, displayName = null,
+                sipServer = null, serverName = null, status = null, modifyTime = null;
+        r.beginObject();
+        for (String k; (k = r.nextName()) != null; ) {
+            switch (k) {
+                case "id": id = r.nextLong(0); break;
+                case "orgId": orgId = r.nextString(); break;
+                case "sipUserId": sipUserId = r.nextString(); break;
+                case "accountName": accountName = r.nextString(); break;
+                case "displayName": displayName = r.nextString(); break;
+                case "sipServer": sipServer = r.nextString(); break;
+                case "serverName": serverName = r.nextString(); break;
+                case "status": status = r.nextString(); break;
+                case "modifyTime": modifyTime = r.nextString(); break;
+                default: r.skipValue();
+            }
+        }
+        return new SipAccountRow(id, orgId, sipUserId, accountName, displayName,
+                sipServer, serverName, status, modifyTime);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.backend.gdms;
+
+import java.util.Map;
+
+/**
+ * Result of one status crawl over a device list. Each call gets its own instance, so report
+ * builds for different orgs can run side by side without sharing state on the client.
+ *
+ * @param byMac    statuses in device order, keyed by MAC
+ * @param failures MAC → error message for devices whose status could not be fetched
+ */
+public record StatusCrawl(Map<String, AccountStatus> byMac, Map<String, String> failures) {
+
+    public int total() {
+        return byMac.size() + failures.size();
+    }
+}
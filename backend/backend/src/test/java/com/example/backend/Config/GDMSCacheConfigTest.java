@@ -0,0 +1,82 @@
+package com.example.backend.Config;
+
+import com.example.backend.Service.GDMSService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GDMSCacheConfigTest {
+
+    /** Counts loads; each load takes a moment so concurrent misses overlap. */
+    static class CountingService extends GDMSService {
+        final AtomicInteger loads = new AtomicInteger();
+
+        CountingService() {
+            super(null, null, null, null, null);
+        }
+
+        @Override
+        public List<Map<String, Object>> loadOrgNames() {
+            int n = loads.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(Map.of("load", n));
+        }
+    }
+
+    private static CacheManager manager(GDMSService service, long refreshSeconds) {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("gdmsService", service);
+        return new GDMSCacheConfig().cacheManager(beans.getBeanProvider(GDMSService.class), 100, 300, refreshSeconds, 4);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountingService service = new CountingService();
+        Cache cache = manager(service, 180).getCache("orgNames");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Map<String, Object>>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) results.add(pool.submit(() -> cache.get(SimpleKey.EMPTY, () -> service.loadOrgNames())));
+            for (Future<List<Map<String, Object>>> f : results) assertEquals(1, f.get(5, TimeUnit.SECONDS).get(0).get("load"));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, service.loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void staleEntriesAreServedWhileReloadingInTheBackground() throws Exception {
+        CountingService service = new CountingService();
+        CacheManager manager = manager(service, 1);
+        Cache cache = manager.getCache("orgNames");
+
+        cache.get(SimpleKey.EMPTY, () -> service.loadOrgNames());
+        Thread.sleep(1_100);
+
+        List<Map<String, Object>> stale = cache.get(SimpleKey.EMPTY, () -> fail("should not load inline"));
+        assertEquals(1, stale.get(0).get("load"));                  // old value, reload started
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<Map<String, Object>> current = stale;
+        while (current == stale && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            current = (List<Map<String, Object>>) cache.get(SimpleKey.EMPTY).get();
+        }
+        assertEquals(2, current.get(0).get("load"));
+        assertEquals(2, service.loads.get());
+    }
+}
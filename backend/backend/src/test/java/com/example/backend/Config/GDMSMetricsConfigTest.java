@@ -0,0 +1,39 @@
+package com.example.backend.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GDMSMetricsConfigTest {
+
+    @Test
+    void meterPerTagCombinationIsRegisteredOnceAndReused() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        GDMSMetricsConfig.MicrometerGdmsMetrics metrics = new GDMSMetricsConfig.MicrometerGdmsMetrics(registry);
+
+        for (int i = 0; i < 3; i++) metrics.call("/device/list", "ok", 1_000_000);
+        metrics.call("/device/list", "http_5xx", 1_000_000);
+        metrics.call("/device/account/status", "ok", 1_000_000);
+        metrics.retry("/device/list");
+        metrics.retry("/device/list");
+        metrics.retCodeFailure("/device/list", 40001);
+        metrics.tokenGrant("password", true, 1_000_000);
+        metrics.tokenGrant("password", false, 1_000_000);
+
+        Timer ok = registry.get("gdms.api.calls").tags("endpoint", "/device/list", "outcome", "ok").timer();
+        assertEquals(3, ok.count());
+        assertEquals(3, registry.get("gdms.api.calls").timers().size());
+        assertEquals(2.0, registry.get("gdms.api.retries").tag("endpoint", "/device/list").counter().count());
+        Counter retCode = registry.get("gdms.api.retcode.failures").tags("endpoint", "/device/list", "retCode", "40001").counter();
+        assertEquals(1.0, retCode.count());
+        assertEquals(2, registry.get("gdms.token.requests").tag("grant", "password").timers().size());
+
+        metrics.call("/device/list", "ok", 1_000_000);
+        assertSame(ok, registry.get("gdms.api.calls").tags("endpoint", "/device/list", "outcome", "ok").timer());
+        assertEquals(4, ok.count());
+    }
+}
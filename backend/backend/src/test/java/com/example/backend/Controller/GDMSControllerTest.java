@@ -0,0 +1,154 @@
+package com.example.backend.Controller;
+
+import com.example.backend.Service.GDMSService;
+import com.example.backend.Service.OrgReport;
+import com.example.backend.Service.OrgSnapshot;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.model.DeviceReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class GDMSControllerTest {
+
+    /** Serves one fixed snapshot; counts how often it is fetched and report rows are built. */
+    static class SnapshotService extends GDMSService {
+        final AtomicInteger builds = new AtomicInteger();
+        final AtomicInteger fetches = new AtomicInteger();
+        volatile OrgSnapshot snapshot = snapshot(1);
+        volatile boolean cold;
+
+        SnapshotService() {
+            super(null, null, null, null, null);
+        }
+
+        static OrgSnapshot snapshot(long version) {
+            DeviceRow d = new DeviceRow("00:0B:82:00:00:01", "sn", "Lobby", "HQ", "GRP2601", "1.0", 1, 1, "t", 7);
+            return new OrgSnapshot(7, version, List.of(d), Map.of(), List.of(), 1_700_000_000_000L);
+        }
+
+        @Override
+        public OrgSnapshot getSnapshot(int orgId) {
+            fetches.incrementAndGet();
+            return snapshot;
+        }
+
+        @Override
+        public OrgSnapshot peekSnapshot(int orgId) {
+            return cold ? null : snapshot;
+        }
+
+        @Override
+        public OrgSnapshot streamDeviceReport(int orgId, Consumer<DeviceReport> sink, BooleanSupplier stop) {
+            snapshot.devices().forEach(d -> sink.accept(deviceRow(d)));
+            return null;
+        }
+
+        static DeviceReport deviceRow(DeviceRow d) {
+            DeviceReport r = new DeviceReport();
+            r.setMacAddress(d.mac());
+            r.setStatus(d.status());
+            return r;
+        }
+
+        @Override
+        public OrgReport<List<DeviceReport>> getDeviceReport(OrgSnapshot snapshot) {
+            builds.incrementAndGet();
+            return super.getDeviceReport(snapshot);
+        }
+    }
+
+    static GDMSController controller(GDMSService service) {
+        return new GDMSController(service, null, new NdjsonStream(new ObjectMapper(), 2, 4, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void reportAnswers304ForTheCurrentSnapshotWithoutBuildingRows() throws Exception {
+        SnapshotService service = new SnapshotService();
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller(service)).build();
+
+        MvcResult first = mvc.perform(get("/gdms/report").param("orgId", "7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertEquals(service.snapshot.etag(), etag);
+
+        assertEquals(List.of("Accept"), first.getResponse().getHeaders("Vary"));   // same ETag as the NDJSON form
+
+        mvc.perform(get("/gdms/report").param("orgId", "7").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().string(""));
+        assertEquals(1, service.builds.get());
+
+        service.snapshot = SnapshotService.snapshot(2);       // a refresh landed
+        mvc.perform(get("/gdms/report").param("orgId", "7").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", service.snapshot.etag()));
+        assertEquals(2, service.builds.get());
+    }
+
+    @Test
+    void reportQueryReturnsProjectedPageWithTotal() throws Exception {
+        SnapshotService service = new SnapshotService();
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller(service)).build();
+
+        mvc.perform(get("/gdms/report").param("orgId", "7").param("siteName", "hq")
+                        .param("fields", "macAddress,status").param("page", "0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(content().json("[{\"macAddress\":\"00:0B:82:00:00:01\",\"status\":1}]", true));
+        assertEquals(1, service.fetches.get());
+
+        mvc.perform(get("/gdms/report").param("orgId", "7").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/gdms/report").param("orgId", "7").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/gdms/report").param("orgId", "7").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+        assertEquals(1, service.fetches.get());               // rejected before the snapshot (a crawl, if cold)
+    }
+
+    @Test
+    void reportStreamsNdjsonByAcceptHeaderOrFormatParam() throws Exception {
+        SnapshotService service = new SnapshotService();
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller(service)).build();
+
+        MvcResult warm = mvc.perform(get("/gdms/report").param("orgId", "7").param("status", "0,1")
+                        .param("fields", "macAddress").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("ETag", service.snapshot.etag()))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andReturn();
+        mvc.perform(asyncDispatch(warm))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"macAddress\":\"00:0B:82:00:00:01\"}\n"));
+
+        service.cold = true;                                  // not crawled yet: rows come from the crawl
+        MvcResult cold = mvc.perform(get("/gdms/report").param("orgId", "7").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        cold.getAsyncResult(5000);
+        assertTrue(cold.getResponse().getContentAsString().startsWith("{\"macAddress\":\"00:0B:82:00:00:01\""));
+        assertNull(cold.getResponse().getHeader("ETag"));
+
+        mvc.perform(get("/gdms/report").param("orgId", "7").param("sort", "password").param("format", "ndjson"))
+                .andExpect(status().isBadRequest());
+    }
+}
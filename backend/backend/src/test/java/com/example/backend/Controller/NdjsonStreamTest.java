@@ -0,0 +1,196 @@
+package com.example.backend.Controller;
+
+import com.example.backend.model.DeviceReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonStreamTest {
+
+    private final NdjsonStream ndjson = new NdjsonStream(new ObjectMapper(), 2, 1, Duration.ofSeconds(30));
+
+    @AfterEach
+    void close() {
+        ndjson.close();
+    }
+
+    @Test
+    void writesOneObjectPerLineAndReportsProducerFailure() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ndjson.of((sink, stop) -> {
+            sink.accept(Map.of("mac", "a"));
+            sink.accept(Map.of("mac", "b"));
+            throw new IllegalStateException("GDMS down");
+        }).writeTo(out);
+
+        assertEquals("{\"mac\":\"a\"}\n{\"mac\":\"b\"}\n{\"error\":\"GDMS down\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void producerErrorStillEndsTheStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ndjson.of((sink, stop) -> {
+            sink.accept(Map.of("mac", "a"));
+            throw new StackOverflowError("deep");
+        }).writeTo(out);
+
+        assertEquals("{\"mac\":\"a\"}\n{\"error\":\"deep\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rowsUseTheGivenObjectMapper() throws Exception {
+        ObjectMapper snakeCase = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        DeviceReport row = new DeviceReport();
+        row.setMacAddress("00:0B:82:00:00:01");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (NdjsonStream stream = new NdjsonStream(snakeCase, 1, 1, Duration.ofSeconds(30))) {
+            stream.of(List.of(row)).writeTo(out);
+        }
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"mac_address\":\"00:0B:82:00:00:01\""), out.toString());
+    }
+
+    @Test
+    void clientDisconnectStopsTheProducer() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        CountDownLatch stopped = new CountDownLatch(1);
+        OutputStream client = new OutputStream() {
+            int bytes;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++bytes > 1000) throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> ndjson.of((sink, stop) -> {
+            while (!stop.getAsBoolean()) {                    // an endless crawl
+                sink.accept(List.of(produced.incrementAndGet()));
+            }
+            stopped.countDown();
+        }).writeTo(client));
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void slowClientPausesTheProducerButNotOtherThreads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fannedOut = new CountDownLatch(1);
+        AtomicBoolean checkedBeforeRelease = new AtomicBoolean();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        OutputStream slowClient = blockingClient(release, received);
+
+        Thread writer = new Thread(() -> {
+            try {
+                ndjson.of((sink, stop) -> {
+                    Thread fanOut = new Thread(() -> {         // e.g. the shared status fan-out
+                        for (int i = 0; i < 3 * NdjsonStream.BUFFER_ROWS; i++) sink.accept(List.of(i));
+                        fannedOut.countDown();
+                    });
+                    fanOut.start();
+                    fanOut.join();
+                    stop.getAsBoolean();                       // producer thread: waits for the client
+                    checkedBeforeRelease.set(release.getCount() > 0);
+                    sink.accept(List.of("last"));
+                }).writeTo(slowClient);
+            } catch (IOException ignored) {
+            }
+        });
+        writer.start();
+
+        assertTrue(fannedOut.await(5, TimeUnit.SECONDS), "a fan-out thread waited for the client");
+        Thread.sleep(100);
+        release.countDown();
+        writer.join(5000);
+
+        assertFalse(checkedBeforeRelease.get(), "producer was not paused");
+        String[] lines = received.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3 * NdjsonStream.BUFFER_ROWS + 1, lines.length);
+        assertEquals("[\"last\"]", lines[lines.length - 1]);
+    }
+
+    @Test
+    void stalledClientStopsTheStreamWithAnError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        OutputStream stalledClient = blockingClient(release, received);
+
+        try (NdjsonStream stream = new NdjsonStream(new ObjectMapper(), 1, 1, Duration.ofMillis(100))) {
+            Thread writer = new Thread(() -> {
+                try {
+                    stream.of((sink, stop) -> {
+                        while (!stop.getAsBoolean()) sink.accept(List.of(1));
+                        stopped.countDown();
+                    }).writeTo(stalledClient);
+                } catch (IOException ignored) {
+                }
+            });
+            writer.start();
+
+            assertTrue(stopped.await(5, TimeUnit.SECONDS), "producer kept running for a stalled client");
+            release.countDown();
+            writer.join(5000);
+        }
+
+        String body = received.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("{\"error\":\"Client too slow, stream stopped\"}\n"), body);
+    }
+
+    @Test
+    void fullProducerPoolIsReportedInTheStream() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> busy = List.of(new Thread(() -> stream(release)), new Thread(() -> stream(release)),
+                new Thread(() -> stream(release)));          // 2 running + 1 queued
+        busy.forEach(Thread::start);
+        Thread.sleep(200);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ndjson.of((sink, stop) -> sink.accept(List.of(1))).writeTo(out);
+
+        assertEquals("{\"error\":\"Too many report streams in progress, try again later\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+        release.countDown();
+        for (Thread t : busy) t.join(5000);
+    }
+
+    private void stream(CountDownLatch release) {
+        try {
+            ndjson.of((sink, stop) -> release.await()).writeTo(OutputStream.nullOutputStream());
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** Accepts nothing until {@code release}, then collects what it is sent. */
+    private static OutputStream blockingClient(CountDownLatch release, ByteArrayOutputStream received) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                received.write(b);
+            }
+        };
+    }
+}
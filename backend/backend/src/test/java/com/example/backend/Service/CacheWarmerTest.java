@@ -0,0 +1,66 @@
+package com.example.backend.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWarmerTest {
+
+    @Test
+    void warmsWithinBudgetAndReportsProgress() throws InterruptedException {
+        Set<Integer> warmed = ConcurrentHashMap.newKeySet();
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch slowDone = new CountDownLatch(2);
+        Set<Integer> interrupted = ConcurrentHashMap.newKeySet();
+        CacheWarmer warmer = new CacheWarmer(() -> {}, orgId -> {
+            if (orgId == 3) throw new IllegalStateException("no such org");
+            if (orgId >= 100) {                       // slow orgs: still crawling when the budget runs out
+                try {
+                    never.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.add(orgId);
+                }
+                slowDone.countDown();
+                return;
+            }
+            warmed.add(orgId);
+        }, () -> List.of(1, 2, 3, 100, 101, 102, 103), true, 300, 2);
+
+        assertEquals(CacheWarmer.Phase.PENDING, warmer.progress().phase());
+        warmer.run();
+        never.countDown();
+        assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Set.of(), interrupted);           // running crawls are left to finish
+
+        CacheWarmer.Progress p = warmer.progress();
+        assertEquals(CacheWarmer.Phase.DONE, p.phase());
+        assertTrue(p.orgListLoaded());
+        assertEquals(Set.of(1, 2), warmed);
+        assertEquals(7, p.orgs());
+        assertEquals(1, p.failed());
+        assertEquals(2, p.skipped());                  // two slow orgs running, two never started
+        assertTrue(p.elapsedMillis() < 5_000);
+    }
+
+    @Test
+    void configuredOrgsComeFirstThenMostRequested(@TempDir Path dir) {
+        Path file = dir.resolve("usage.properties");
+        OrgUsage usage = new OrgUsage(file.toString());
+        for (int i = 0; i < 8; i++) usage.record(42);
+        for (int i = 0; i < 4; i++) usage.record(7);
+        usage.record(9);
+        usage.close();
+
+        OrgUsage next = new OrgUsage(file.toString());          // counts halved: 4, 2, 0 (dropped)
+        assertEquals(List.of(42, 7), next.top(5));
+        assertEquals(List.of(5, 42, 7), CacheWarmer.pickOrgs(" 5, 42 ,", next.top(2)));
+    }
+}
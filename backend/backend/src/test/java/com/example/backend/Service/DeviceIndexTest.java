@@ -0,0 +1,87 @@
+package com.example.backend.Service;
+
+import com.example.backend.model.DeviceReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceIndexTest {
+
+    private static DeviceReport row(String mac, String name, String site, String model, int status) {
+        DeviceReport r = new DeviceReport();
+        r.setMacAddress(mac);
+        r.setDeviceName(name);
+        r.setSiteName(site);
+        r.setDeviceModel(model);
+        r.setFirmwareVersion("1.0.5");
+        r.setStatus(status);
+        r.setPushConfiguration(1);
+        return r;
+    }
+
+    private static final DeviceIndex INDEX = new DeviceIndex(3, List.of(
+            row("00:0B:82:00:00:01", "Lobby", "HQ", "GRP2601", 1),
+            row("00:0B:82:00:00:02", "Reception", "HQ", "GRP2602", 0),
+            row("00:0B:82:11:00:03", "Lab", "Branch", "GRP2601", 1),
+            row("C0:74:AD:00:00:04", "Loading dock", "branch", "GXP1610", -1),
+            row("C0:74:AD:00:00:05", "Boardroom", "HQ", "GRP2601", 1)));
+
+    private static List<String> names(DeviceIndex.Page page) {
+        return page.rows().stream().map(DeviceReport::getDeviceName).toList();
+    }
+
+    @Test
+    void filtersCombineAcrossColumnsAndMatchAnyValueWithinOne() {
+        DeviceIndex.Page page = INDEX.query(new DeviceIndex.Query(
+                Map.of("siteName", List.of("branch"), "status", List.of("1", "-1")), null, List.of(), 0, 0));
+        assertEquals(List.of("Lab", "Loading dock"), names(page));
+        assertEquals(2, page.total());
+    }
+
+    @Test
+    void prefixMatchesMacWithOrWithoutSeparatorsOrName() {
+        assertEquals(List.of("Lab"), names(INDEX.query(new DeviceIndex.Query(Map.of(), "000b8211", List.of(), 0, 0))));
+        assertEquals(List.of("Loading dock", "Boardroom"),
+                names(INDEX.query(new DeviceIndex.Query(Map.of(), "c0:74:ad", List.of(), 0, 0))));
+        assertEquals(List.of("Lobby", "Loading dock"), names(INDEX.query(new DeviceIndex.Query(Map.of(), "lo", List.of(), 0, 0))));
+    }
+
+    @Test
+    void prefixFindsEveryRowWithARepeatedKey() {
+        List<DeviceReport> phones = new ArrayList<>();
+        for (int i = 0; i < 5; i++) phones.add(row("00:0B:82:00:01:0" + i, "Phone", "HQ", "GRP2601", 1));
+        phones.add(row("00:0B:82:00:01:09", "Pager", "HQ", "GRP2601", 1));
+        DeviceIndex index = new DeviceIndex(1, phones);
+
+        assertEquals(5, index.query(new DeviceIndex.Query(Map.of(), "phone", List.of(), 0, 0)).total());
+        assertEquals(6, index.query(new DeviceIndex.Query(Map.of(), "p", List.of(), 0, 0)).total());
+        assertEquals(6, index.query(new DeviceIndex.Query(Map.of(), "000b820001", List.of(), 0, 0)).total());
+    }
+
+    @Test
+    void sortsStablyAndPages() {
+        DeviceIndex.Query q = new DeviceIndex.Query(
+                Map.of("deviceModel", List.of("GRP2601", "GRP2602")), null, List.of("siteName", "-deviceName"), 1, 2);
+        DeviceIndex.Page page = INDEX.query(q);
+        assertEquals(4, page.total());
+        assertEquals(List.of("Lobby", "Boardroom"), names(page));    // Branch: Lab | HQ: Reception, Lobby, Boardroom
+        assertEquals(List.of(), INDEX.query(new DeviceIndex.Query(Map.of(), null, List.of(), 9, 2)).rows());
+    }
+
+    @Test
+    void projectsColumnsAndRejectsUnknownNames() {
+        List<Map<String, Object>> rows = DeviceIndex.project(INDEX.rows().subList(0, 1), List.of("deviceName", "status"));
+        assertEquals(List.of(Map.of("deviceName", "Lobby", "status", 1)), rows);
+        assertEquals(List.of("deviceName", "status"), List.copyOf(rows.get(0).keySet()));
+
+        assertThrows(IllegalArgumentException.class, () -> DeviceIndex.project(INDEX.rows(), List.of("password")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeviceIndex.Query(Map.of("sn", List.of("x")), null, List.of(), 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeviceIndex.Query(Map.of(), null, List.of("-nope"), 0, 0));
+    }
+}
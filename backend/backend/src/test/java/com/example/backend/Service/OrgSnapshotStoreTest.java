@@ -0,0 +1,107 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.DeviceRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgSnapshotStoreTest {
+
+    private static OrgSnapshot snapshot(int orgId, int n, long takenAt) {
+        DeviceRow row = new DeviceRow("00:0B:82:00:00:0" + n, null, "dev" + n, null, null, null, 1, 1, null, orgId);
+        return new OrgSnapshot(orgId, 0, List.of(row), Map.of(), List.of(), takenAt);
+    }
+
+    @Test
+    void servesStaleSnapshotWhileRevalidating() throws Exception {
+        AtomicInteger crawls = new AtomicInteger();
+        CountDownLatch secondCrawl = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (OrgSnapshotStore store = new OrgSnapshotStore(orgId -> {
+            int n = crawls.incrementAndGet();
+            if (n == 1) return snapshot(orgId, n, 0);   // taken "long ago": already stale
+            secondCrawl.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return snapshot(orgId, n, System.currentTimeMillis());
+        }, 60_000, 20, 60_000, 1)) {
+
+            OrgSnapshot first = store.get(7);               // cold: crawled inline
+            assertEquals(1, crawls.get());
+            assertSame(first, store.get(7));                // stale: returned at once, refresh kicked off
+            assertTrue(secondCrawl.await(5, TimeUnit.SECONDS));
+            assertSame(first, store.get(7));                // still refreshing: no second refresh started
+            assertTrue(store.state().get(7).refreshing());
+
+            release.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.get(7) == first && System.nanoTime() < deadline) Thread.sleep(5);
+            assertEquals("dev2", store.get(7).devices().get(0).deviceName());
+            assertEquals(2, store.get(7).version());
+            assertEquals(2, crawls.get());
+        }
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() {
+        AtomicInteger crawls = new AtomicInteger();
+        try (OrgSnapshotStore store = new OrgSnapshotStore(orgId -> {
+            if (crawls.incrementAndGet() > 1) throw new IllegalStateException("GDMS down");
+            return snapshot(orgId, 1, System.currentTimeMillis());
+        }, 20, 0, 60_000, 1)) {
+
+            OrgSnapshot first = store.get(7);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.state().get(7).lastError() == null && System.nanoTime() < deadline) Thread.onSpinWait();
+
+            assertEquals("GDMS down", store.state().get(7).lastError());
+            assertSame(first, store.get(7));
+        }
+    }
+
+    @Test
+    void coldFailureReachesTheCallerAndIsNotKept() {
+        try (OrgSnapshotStore store = new OrgSnapshotStore(orgId -> {
+            throw new IllegalStateException("no such org");
+        }, 60_000, 20, 60_000, 1)) {
+
+            assertThrows(IllegalStateException.class, () -> store.get(9));
+            assertTrue(store.state().isEmpty());
+        }
+    }
+
+    @Test
+    void coldStreamPassesStatusesAsTheyArriveAndAbandonedCrawlIsNotKept() {
+        OrgSnapshotStore.Loader loader = (orgId, onStatus, stop) -> {
+            OrgSnapshot s = snapshot(orgId, 1, System.currentTimeMillis());
+            onStatus.accept(s.devices().get(0), null);
+            if (stop.getAsBoolean()) throw new CancellationException("client gone");
+            return s;
+        };
+        try (OrgSnapshotStore store = new OrgSnapshotStore(loader, 60_000, 0, 60_000, 1)) {
+            AtomicInteger streamed = new AtomicInteger();
+
+            assertThrows(CancellationException.class,
+                    () -> store.getOrStream(3, (d, s) -> streamed.incrementAndGet(), () -> true));
+            assertEquals(1, streamed.get());
+            assertNull(store.peek(3));                       // abandoned: nothing kept
+
+            assertNull(store.getOrStream(3, (d, s) -> streamed.incrementAndGet(), () -> false));
+            assertEquals(2, streamed.get());
+            OrgSnapshot kept = store.peek(3);
+            assertNotNull(kept);
+            assertSame(kept, store.getOrStream(3, (d, s) -> streamed.incrementAndGet(), () -> false));
+            assertEquals(2, streamed.get());                 // warm: the caller sends the snapshot's rows
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.DeviceRow;
+import com.example.backend.gdms.SipAccountRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    private static OrgSnapshot sample(int orgId, long version, long takenAt) {
+        List<DeviceRow> devices = List.of(
+                new DeviceRow("C0:74:AD:68:C3:0C", "SN1", "6002-CCR Café 📞", null, "GRP2601", "1.0.5.3", 0, 1, null, orgId),
+                new DeviceRow("C0:74:AD:68:C3:0D", null, null, null, null, null, null, null, "2024-01-01 10:00", orgId));
+        Map<String, AccountStatus> statuses = new LinkedHashMap<>();
+        statuses.put("C0:74:AD:68:C3:0C", new AccountStatus(1, null, "", List.of(
+                new AccountStatus.SipAccountInfo(1, "Up", "38096002", "voip.example.in:5070", null),
+                new AccountStatus.SipAccountInfo(null, null, null, null, "srv"))));
+        List<SipAccountRow> sip = List.of(
+                new SipAccountRow(5258160L, "120715", "38096002", "2006-TEST", null, "voip.example.in", null, "0", null));
+        return new OrgSnapshot(orgId, version, devices, statuses, sip, takenAt);
+    }
+
+    @Test
+    void roundTripsOrgListAndSnapshots(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("snap.bin");
+        List<Map<String, Object>> orgs = List.of(
+                Map.of("id", 119499, "organization", "Acme"),
+                Map.of("id", 12_345_678_901L, "organization", "Ünïcode"));
+        List<OrgSnapshot> snapshots = List.of(sample(7, 3, 1_700_000_000_000L), sample(8, 4, 1_700_000_001_000L));
+
+        SnapshotFile.write(file, orgs, snapshots);
+        SnapshotFile.Contents c = SnapshotFile.read(file);
+
+        assertEquals(orgs, c.orgNames());
+        assertEquals(snapshots, c.snapshots());
+        assertEquals(List.copyOf(snapshots.get(0).statusByMac().keySet()),
+                List.copyOf(c.snapshots().get(0).statusByMac().keySet()));
+        assertFalse(Files.exists(dir.resolve("snap.bin.tmp")));
+    }
+
+    @Test
+    void rejectsForeignOrTruncatedFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("snap.bin");
+        SnapshotFile.write(file, null, List.of(sample(7, 1, 0)));
+        byte[] bytes = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        Files.writeString(file, "{\"not\":\"binary\"}");
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    @Test
+    void restoredSnapshotsAreServedUntilTheirRefreshLands() throws Exception {
+        try (OrgSnapshotStore store = new OrgSnapshotStore(orgId -> sample(orgId, 0, System.currentTimeMillis()),
+                60_000, 0, 60_000, 1)) {
+            OrgSnapshot saved = sample(7, 41, 1_700_000_000_000L);
+            store.restore(List.of(saved));
+
+            OrgSnapshot first = store.get(7);                      // no crawl in the request
+            assertTrue(first == saved || first.version() == 42);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.get(7) == saved && System.nanoTime() < deadline) Thread.sleep(5);
+            assertEquals(42, store.get(7).version());              // versions continue past the restored ones
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend.Service;
+
+import com.example.backend.gdms.AccountStatus;
+import com.example.backend.gdms.DeviceRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusCacheTest {
+
+    private static DeviceRow device(String mac, String lastTime) {
+        return new DeviceRow(mac, null, null, null, null, null, 1, 1, lastTime, 7);
+    }
+
+    private static AccountStatus status(int value) {
+        return new AccountStatus(value, null, null, List.of());
+    }
+
+    @Test
+    void requeriesOnlyMissingExpiredOrChangedMacs() {
+        AtomicLong nanos = new AtomicLong();
+        List<List<String>> asked = new ArrayList<>();
+        Set<String> down = new HashSet<>();
+        StatusCache cache = new StatusCache(devices -> {
+            List<String> macs = devices.stream().map(DeviceRow::mac).toList();
+            asked.add(macs);
+            Map<String, AccountStatus> out = new LinkedHashMap<>();
+            for (String mac : macs) if (!down.contains(mac)) out.put(mac, status(asked.size()));
+            return out;
+        }, TimeUnit.MINUTES.toNanos(5), 1000, nanos::get);
+
+        List<DeviceRow> org = List.of(device("A", "t1"), device("B", "t1"), device("C", null));
+        assertEquals(List.of("A", "B", "C"), new ArrayList<>(cache.statusesFor(org).keySet()));
+
+        // B checked in since; C's re-query fails and keeps its old status
+        down.add("C");
+        List<DeviceRow> moved = List.of(device("A", "t1"), device("B", "t2"), device("C", "t2"));
+        Map<String, AccountStatus> second = cache.statusesFor(moved);
+        assertEquals(List.of("B", "C"), asked.get(1));
+        assertEquals(1, second.get("A").accountStatus());
+        assertEquals(2, second.get("B").accountStatus());
+        assertEquals(1, second.get("C").accountStatus());
+
+        cache.statusesFor(moved.subList(0, 2));
+        assertEquals(2, asked.size());                       // nothing stale: no upstream call
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(7));        // past ttl + 20% jitter
+        cache.statusesFor(moved.subList(0, 2));
+        assertEquals(List.of("A", "B"), asked.get(2));
+
+        StatusCache.Stats s = cache.stats();
+        assertEquals(3, s.reused());
+        assertEquals(5, s.missing());
+        assertEquals(2, s.changed());
+    }
+}
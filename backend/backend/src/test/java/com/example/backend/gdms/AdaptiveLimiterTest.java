@@ -0,0 +1,115 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.backend.gdms.GdmsStub.reply;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private GdmsStub stub;
+    private GDMSAPI client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int retCode = 0;
+    private volatile long delayMs = 5;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = new GdmsStub().route("/oapi/v1.0.0/device/account/status", ex -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            reply(ex, 200, "{\"retCode\":" + retCode + ",\"msg\":\"stub\",\"data\":{\"accountStatus\":1}}");
+        }).start();
+        client = stub.client();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void healthyEndpointGrowsButNeverExceedsCeiling() {
+        client.setAdaptiveLimits(4, 1, 12);
+
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 400; i++) calls.add(client.getDeviceAccountStatusAsync("00:0B:82:00:00:" + i));
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).join();
+
+        AdaptiveLimiter.State state = client.getLimiterState().get("/device/account/status");
+        assertTrue(state.limit() > 4, "limit should grow while healthy: " + state);
+        assertTrue(maxInFlight.get() <= 12, "ceiling exceeded: " + maxInFlight.get());
+        assertEquals(400, state.successes());
+        assertEquals(0, state.inFlight());
+    }
+
+    @Test
+    void retCodeErrorsBackOffToFloor() {
+        client.setAdaptiveLimits(16, 2, 64);
+        retCode = 40001;
+        delayMs = 1;
+
+        for (int i = 0; i < 80; i++) {
+            assertThrows(RuntimeException.class, () -> client.getDeviceAccountStatus("00:0B:82:00:00:01"));
+        }
+
+        AdaptiveLimiter.State state = client.getLimiterState().get("/device/account/status");
+        assertEquals(2, state.limit(), "limit should fall to the floor: " + state);
+        assertEquals(80, state.failures());
+    }
+
+    @Test
+    void callersBeyondLimitQueueUntilReleased() {
+        AdaptiveLimiter.Limit limit = new AdaptiveLimiter(2, 1, 8).forEndpoint("/x");
+        AdaptiveLimiter.Permit a = limit.acquire();
+        limit.acquire();
+        CompletableFuture<AdaptiveLimiter.Permit> third = limit.acquireAsync();
+
+        assertFalse(third.isDone());
+        a.release();
+        assertTrue(third.isDone());
+    }
+
+    @Test
+    void blockedCallerGivesUpOnTimeoutOrInterrupt() throws Exception {
+        AdaptiveLimiter.Limit limit = new AdaptiveLimiter(1, 1, 1).forEndpoint("/x");
+        AdaptiveLimiter.Permit held = limit.acquire();
+
+        assertThrows(IllegalStateException.class, () -> limit.acquire(50));
+        assertEquals(0, limit.state().queued());
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                limit.acquire();
+            } catch (IllegalStateException e) {
+                failure.set(e);
+            }
+        });
+        waiter.start();
+        while (limit.state().queued() == 0) Thread.onSpinWait();
+        waiter.interrupt();
+        waiter.join(5000);
+
+        assertInstanceOf(InterruptedException.class, failure.get().getCause());
+        assertEquals(0, limit.state().queued());
+        held.release();
+        assertEquals(0, limit.state().inFlight());
+        limit.acquire(50).release();                       // the slot was not leaked to the gone waiter
+    }
+}
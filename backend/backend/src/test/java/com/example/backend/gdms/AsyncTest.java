@@ -0,0 +1,110 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.backend.gdms.GdmsStub.reply;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTest {
+
+    private static final int PAGES = 6;
+    private static final Pattern PAGE_NUM = Pattern.compile("\"pageNum\":(\\d+)");
+
+    private GdmsStub stub;
+    private GDMSAPI client;
+    private final Map<Integer, AtomicInteger> pageHits = new ConcurrentHashMap<>();
+    private final AtomicInteger pagesInFlight = new AtomicInteger();
+    private final AtomicInteger maxPagesInFlight = new AtomicInteger();
+    private final AtomicInteger statusHits = new AtomicInteger();
+    private volatile int failingPage = 0;           // this page always answers 500
+    private volatile int statusFailFirst = 0;       // answer 503 to this many status calls
+    private volatile int statusRetCode = 0;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = new GdmsStub()
+                .route("/oapi/v1.0.0/device/list", ex -> {
+                    Matcher m = PAGE_NUM.matcher(GdmsStub.body(ex));
+                    int page = m.find() ? Integer.parseInt(m.group(1)) : 1;
+                    pageHits.computeIfAbsent(page, p -> new AtomicInteger()).incrementAndGet();
+                    maxPagesInFlight.accumulateAndGet(pagesInFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(30);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    pagesInFlight.decrementAndGet();
+                    if (page == failingPage) {
+                        reply(ex, 500, "down");
+                        return;
+                    }
+                    reply(ex, 200, "{\"retCode\":0,\"data\":{\"pages\":" + PAGES
+                            + ",\"result\":[{\"mac\":\"MAC-" + page + "\"}]}}");
+                })
+                .route("/oapi/v1.0.0/device/account/status", ex -> {
+                    if (statusHits.incrementAndGet() <= statusFailFirst) reply(ex, 503, "busy");
+                    else reply(ex, 200, "{\"retCode\":" + statusRetCode + ",\"msg\":\"stub\",\"data\":{\"accountStatus\":1}}");
+                })
+                .start();
+        client = stub.client();
+        client.setRetryPolicy(3, 1, 5, Set.of());
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void pagesAreFetchedConcurrentlyWithinTheCapAndKeptInOrder() {
+        client.setPageConcurrency(3);
+
+        List<Map<String, Object>> rows = client.fetchDevicesForOrgAsync(7, 1).join();
+
+        assertEquals(List.of("MAC-1", "MAC-2", "MAC-3", "MAC-4", "MAC-5", "MAC-6"),
+                rows.stream().map(r -> r.get("mac")).toList());
+        assertTrue(maxPagesInFlight.get() > 1, "pages 2..N should overlap");
+        assertTrue(maxPagesInFlight.get() <= 3, "page cap exceeded: " + maxPagesInFlight.get());
+        pageHits.forEach((page, hits) -> assertEquals(1, hits.get(), "page " + page));
+    }
+
+    @Test
+    void failedPageFailsTheListing() {
+        client.setRetryPolicy(1, 1, 1, Set.of());
+        failingPage = 4;
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> client.fetchDevicesForOrgAsync(7, 1).join());
+        assertTrue(String.valueOf(e.getCause().getMessage()).contains("500"), e.getCause().getMessage());
+    }
+
+    @Test
+    void transientFailuresAreRetriedAsync() {
+        statusFailFirst = 2;
+
+        Map<String, Object> status = client.getDeviceAccountStatusAsync("00:0B:82:00:00:01").join();
+
+        assertNotNull(status.get("data"));
+        assertEquals(3, statusHits.get());
+    }
+
+    @Test
+    void retCodeErrorsAreNotRetriedAsync() {
+        statusRetCode = 40001;
+
+        assertThrows(CompletionException.class, () -> client.getDeviceAccountStatusAsync("00:0B:82:00:00:01").join());
+        assertEquals(1, statusHits.get());
+    }
+}
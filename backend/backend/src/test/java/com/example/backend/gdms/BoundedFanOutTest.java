@@ -0,0 +1,109 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedFanOutTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 40).boxed().toList();
+
+    @Test
+    void capIsSharedByConcurrentCallers() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger ran = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try (BoundedFanOut fanOut = new BoundedFanOut("test-fanout", 4)) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                calls.add(callers.submit(() -> fanOut.forEach(ITEMS, i -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(2);
+                    running.decrementAndGet();
+                    ran.incrementAndGet();
+                })));
+            }
+            for (Future<?> f : calls) f.get(10, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(3 * ITEMS.size(), ran.get());
+        assertTrue(maxRunning.get() <= 4, "cap exceeded: " + maxRunning.get());
+    }
+
+    @Test
+    void firstFailureIsRethrownAfterTheOtherTasksFinish() {
+        Set<Integer> ran = ConcurrentHashMap.newKeySet();
+        try (BoundedFanOut fanOut = new BoundedFanOut("test-fanout", 4)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> fanOut.forEach(ITEMS, i -> {
+                if (i == 7) throw new IllegalStateException("device 7");
+                sleep(1);
+                ran.add(i);
+            }));
+            assertEquals("device 7", e.getMessage());
+        }
+        assertEquals(ITEMS.size() - 1, ran.size());
+    }
+
+    @Test
+    void usesVirtualThreadsOnlyWhenTheJdkHasThem() {
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        try (BoundedFanOut fanOut = new BoundedFanOut("test-fanout", 2)) {
+            fanOut.forEach(ITEMS, i -> threadNames.add(Thread.currentThread().getName()));
+
+            boolean jdkHasThem = Runtime.version().feature() >= 21;
+            assertEquals(jdkHasThem, fanOut.usesVirtualThreads());
+            if (!jdkHasThem) assertEquals(Set.of("test-fanout"), threadNames);   // the platform fallback pool
+        }
+    }
+
+    @Test
+    void closeLetsRunningCallsFinishAndRefusesNewOnes() throws Exception {
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        BoundedFanOut fanOut = new BoundedFanOut("test-fanout", 2);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> call = caller.submit(() -> fanOut.forEach(ITEMS, i -> {
+                started.countDown();
+                sleep(2);
+                ran.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            fanOut.close();
+
+            AtomicInteger late = new AtomicInteger();                  // arrives while the first call still runs
+            assertThrows(RejectedExecutionException.class, () -> fanOut.forEach(ITEMS, i -> late.incrementAndGet()));
+            assertFalse(call.isDone());
+
+            call.get(10, TimeUnit.SECONDS);
+            assertEquals(ITEMS.size(), ran.get());
+            assertEquals(0, late.get());
+            assertThrows(RejectedExecutionException.class, () -> fanOut.forEach(ITEMS, i -> {}));
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalJsonTest {
+
+    /** The StringBuilder + TreeMap serializer the signatures were defined against. */
+    @SuppressWarnings("unchecked")
+    private static String reference(Object v) {
+        if (v == null) return "null";
+        if (v instanceof String) return quote((String) v);
+        if (v instanceof Boolean) return (Boolean) v ? "true" : "false";
+        if (v instanceof Number) {
+            String s = v.toString();
+            return s.endsWith(".0") ? s.substring(0, s.length() - 2) : s;
+        }
+        if (v instanceof Map) {
+            StringBuilder sb = new StringBuilder("{");
+            boolean first = true;
+            for (var e : new TreeMap<>((Map<String, Object>) v).entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append(quote(e.getKey())).append(':').append(reference(e.getValue()));
+            }
+            return sb.append('}').toString();
+        }
+        if (v instanceof Iterable) {
+            StringBuilder sb = new StringBuilder("[");
+            boolean first = true;
+            for (Object x : (Iterable<?>) v) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append(reference(x));
+            }
+            return sb.append(']').toString();
+        }
+        return quote(String.valueOf(v));
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c < 0x20 ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    @Test
+    void matchesReferenceSerializerByteForByte() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("pageSize", 5000);
+        body.put("order", "");
+        body.put("orgId", 119499);
+        body.put("type", "");
+        body.put("pageNum", 2);
+        body.put("mac", "C0:74:AD:4C:53:75");
+        body.put("name", "Café \"über\" \\ 📞 \u0001\t\n");
+        body.put("big", Long.MIN_VALUE);
+        body.put("neg", -42);
+        body.put("ratio", 2.0);
+        body.put("frac", 0.25);
+        body.put("flag", true);
+        body.put("none", null);
+        body.put("list", List.of(1, "two", Map.of("z", 1, "a", List.of())));
+
+        Map<String, Object> sorted = new TreeMap<>(body);
+        sorted.remove("none");
+        Map<String, Object> alreadyOrdered = new LinkedHashMap<>(sorted);   // takes the no-sort path
+
+        for (Object v : List.of(body, sorted, alreadyOrdered, List.of(), Map.of(), "x")) {
+            byte[] expected = reference(v).getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(expected, CanonicalJson.toBytes(v), reference(v));
+        }
+    }
+
+    @Test
+    void signatureSendsTheBytesItHashed() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("mac", "00:0B:82:00:00:01");
+        GDMSAPI.Signature.JsonSig sig = GDMSAPI.Signature.buildSignatureJson(
+                "https://gdms.example/oapi/v1.0.0/device/account/status", "tok", "id", "secret",
+                1_700_000_000_000L, body, true, true);
+
+        assertEquals("{\"mac\":\"00:0B:82:00:00:01\"}", new String(sig.body, StandardCharsets.UTF_8));
+        assertEquals(GDMSAPI.Signature.normalizeBodyJson(sig.body).bodySha256, sig.bodySha256);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescerTest {
+
+    @Test
+    void concurrentCallersShareOneLoadAndReuseItInTheWindow() throws Exception {
+        Coalescer<String, String> c = new Coalescer<>(60_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> c.get("AA", k -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "status-" + k;
+                })));
+            }
+            while (c.stats().joinedInFlight() < 7) Thread.onSpinWait();
+            release.countDown();
+            for (Future<String> f : results) assertEquals("status-AA", f.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals("status-AA", c.get("AA", k -> { throw new AssertionError("should be reused"); }));
+        assertEquals(1, loads.get());
+        Coalescer.Stats s = c.stats();
+        assertEquals(1, s.upstreamCalls());
+        assertEquals(8, s.saved());
+    }
+
+    @Test
+    void failuresAreNotKept() {
+        Coalescer<String, String> c = new Coalescer<>(60_000);
+        assertThrows(IllegalStateException.class, () -> c.get("AA", k -> { throw new IllegalStateException("down"); }));
+        assertEquals("ok", c.get("AA", k -> "ok"));
+
+        CompletableFuture<String> failed = c.getAsync("BB", k -> CompletableFuture.failedFuture(new IllegalStateException()));
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("ok", c.getAsync("BB", k -> CompletableFuture.completedFuture("ok")).join());
+        assertEquals(4, c.stats().upstreamCalls());
+    }
+
+    @Test
+    void asyncCallersJoinThePendingFuture() {
+        Coalescer<String, Integer> c = new Coalescer<>(0);
+        CompletableFuture<Integer> upstream = new CompletableFuture<>();
+        CompletableFuture<Integer> a = c.getAsync("AA", k -> upstream);
+        CompletableFuture<Integer> b = c.getAsync("AA", k -> { throw new AssertionError("should join"); });
+        b.complete(99);                          // a caller finishing its own copy must not leak to others
+        upstream.complete(1);
+
+        assertEquals(1, a.join());
+        assertEquals(1, c.stats().joinedInFlight());
+        assertEquals(2, c.getAsync("AA", k -> CompletableFuture.completedFuture(2)).join());   // window 0: no reuse
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DumpSinkTest {
+
+    @Test
+    void writesCompactJsonOffThreadAndKeepsOnlyTheNewestPayload(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("status.json");
+        try (DumpSink sink = new DumpSink(dir, 60_000)) {
+            sink.submit("status.json", Map.of("n", 1));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sink.written() < 1 && System.nanoTime() < deadline) Thread.sleep(5);
+            assertEquals("{\"n\":1}", Files.readString(file));
+
+            // inside the interval: held back, and each newer payload replaces the last
+            sink.submit("status.json", Map.of("n", 2));
+            sink.submit("status.json", Map.of("n", 3, "b", true));
+            Thread.sleep(50);
+            assertEquals("{\"n\":1}", Files.readString(file));
+            assertEquals(1, sink.superseded());
+        }
+        assertEquals("{\"b\":true,\"n\":3}", Files.readString(file));   // flushed on close
+        assertFalse(Files.exists(dir.resolve("status.json.tmp")));
+    }
+
+    @Test
+    void offSinkWritesNothing(@TempDir Path dir) {
+        DumpSink.OFF.submit("x.json", Map.of());
+        DumpSink.OFF.close();
+        assertEquals(0, DumpSink.OFF.written());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.backend.gdms;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process GDMS stand-in for client tests. Tests route the paths they need; the token endpoint
+ * grants a one-hour token unless a test routes it itself.
+ */
+final class GdmsStub implements AutoCloseable {
+
+    static final String TOKEN_PATH = "/oapi/oauth/token";
+    static final String TOKEN = "{\"access_token\":\"tok\",\"token_type\":\"bearer\",\"expires_in\":3600}";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<String> routed = new HashSet<>();
+
+    GdmsStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+    }
+
+    /** Answers {@code path} (e.g. {@code /oapi/v1.0.0/device/list}) with {@code handler}. */
+    GdmsStub route(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        routed.add(path);
+        return this;
+    }
+
+    GdmsStub start() {
+        if (!routed.contains(TOKEN_PATH)) route(TOKEN_PATH, ex -> reply(ex, 200, TOKEN));
+        server.start();
+        return this;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** A client for this stub with the usual test credentials. */
+    GDMSAPI client() {
+        return new GDMSAPI(baseUrl(), "user", "pass", "id", "secret", null, 120, 5, false);
+    }
+
+    static String body(HttpExchange ex) throws IOException {
+        return new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    static void reply(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+        ex.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+
+    /** Hands out one byte per read so every token straddles a window refill. */
+    private static InputStream trickle(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    void matchesMiniJsonOnEnvelope() {
+        String json = "{\"retCode\":0,\"msg\":\"ok\",\"data\":{\"pages\":3,\"result\":["
+                + "{\"mac\":\"00:0B:82:AA:BB:CC\",\"deviceName\":\"Caf\\u00e9 über 📞\","
+                + "\"status\":1,\"big\":12345678901,\"ratio\":-1.5e2,\"ok\":true,\"none\":null,"
+                + "\"esc\":\"a\\\"b\\\\c\\/d\\n\"}]}}";
+
+        Object expected = GDMSAPI.MiniJson.parse(json);
+        assertEquals(expected, new JsonReader(json.getBytes(StandardCharsets.UTF_8)).nextValue());
+        assertEquals(expected, new JsonReader(trickle(json)).nextValue());
+    }
+
+    @Test
+    void integersBeyondLongBecomeDoublesLikeMiniJson() {
+        String json = "[123456789012345678901234,-98765432109876543210.5,9223372036854775806]";
+
+        Object expected = GDMSAPI.MiniJson.parse(json);
+        assertEquals(expected, new JsonReader(trickle(json)).nextValue());
+        assertEquals(List.of(1.2345678901234568E23, -9.876543210987654E19, 9223372036854775806L),
+                new JsonReader(json.getBytes(StandardCharsets.UTF_8)).nextValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsAndReadsTypedScalars() {
+        JsonReader r = new JsonReader(trickle("{\"skip\":{\"a\":[1,{\"b\":\"}\"}]},\"n\":\"42\",\"s\":7,\"x\":null}"));
+        r.beginObject();
+        assertEquals("skip", r.nextName());
+        r.skipValue();
+        assertEquals("n", r.nextName());
+        assertEquals(42, r.nextInt(-1));
+        assertEquals("s", r.nextName());
+        assertEquals("7", r.nextString());
+        assertEquals("x", r.nextName());
+        assertNull(r.nextIntOrNull());
+        assertNull(r.nextName());
+        assertTrue(r.atEnd());
+
+        List<Object> arr = (List<Object>) new JsonReader(trickle("[ ]")).nextValue();
+        assertTrue(arr.isEmpty());
+        Map<String, Object> empty = new JsonReader(trickle("{}")).nextObjectMap();
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalStateException.class, () -> new JsonReader(trickle("{\"a\":tru}")).nextValue());
+        assertThrows(IllegalStateException.class, () -> new JsonReader(trickle("{\"a\":\"open")).nextValue());
+    }
+
+    @Test
+    void bindersFillRecordsFromTheStream() {
+        DeviceRow d = DeviceRow.read(new JsonReader(trickle("{\"accountStatus\":1,\"deviceName\":\"6002-CCR\","
+                + "\"deviceSeries\":null,\"deviceType\":\"GRP2601\",\"is_synchronized\":\"1\",\"lastTime\":null,"
+                + "\"mac\":\"C0:74:AD:68:C3:0C\",\"orgId\":119985,\"status\":0,\"extra\":{\"x\":[1,2]}}")));
+        assertEquals(new DeviceRow("C0:74:AD:68:C3:0C", null, "6002-CCR", null, "GRP2601", null, 0, 1, null, 119985), d);
+        DeviceRow both = DeviceRow.read(new JsonReader(trickle("{\"is_synchronized\":0,\"isSynchronized\":1}")));
+        assertEquals(1, both.isSynchronized());                 // camelCase wins whatever the order (as before)
+
+        AccountStatus s = AccountStatus.read(new JsonReader(trickle("{\"accountStatus\":1,\"dnd\":null,"
+                + "\"sipAccountInfoList\":[{\"account\":1,\"accountStatus\":\"Up\",\"callStatus\":null,"
+                + "\"sipServer\":\"voip.example.in:5070\",\"sipUserId\":\"38096002\"}]}")));
+        assertEquals(1, s.accountStatus());
+        assertNull(s.dnd());
+        assertEquals(List.of(new AccountStatus.SipAccountInfo(1, "Up", "38096002", "voip.example.in:5070", null)),
+                s.sipAccounts());
+
+        SipAccountRow row = SipAccountRow.read(new JsonReader(trickle("{\"accountName\":\"2006-TEST\","
+                + "\"deviceInfoList\":[],\"id\":5258160,\"orgId\":\"120715\",\"sipUserId\":\"38092006\",\"status\":0}")));
+        assertEquals(5258160L, row.id());
+        assertEquals("120715", row.orgId());
+        assertEquals("0", row.status());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.backend.gdms.GdmsStub.reply;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagingTest {
+
+    private static final int PAGES = 5;
+    private static final int PER_PAGE = 3;
+    private static final Pattern PAGE_NUM = Pattern.compile("\"pageNum\":(\\d+)");
+
+    private GdmsStub stub;
+    private GDMSAPI client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = new GdmsStub().route("/oapi/v1.0.0/device/list", ex -> {
+            Matcher m = PAGE_NUM.matcher(GdmsStub.body(ex));
+            int page = m.find() ? Integer.parseInt(m.group(1)) : 1;
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < PER_PAGE; i++) {
+                if (i > 0) rows.append(',');
+                rows.append("{\"mac\":\"MAC-").append(page).append('-').append(i)
+                        .append("\",\"deviceName\":\"Téléphone ").append(i).append("\"}");
+            }
+            reply(ex, 200, "{\"retCode\":0,\"msg\":\"ok\",\"data\":{\"pages\":" + PAGES
+                    + ",\"result\":[" + rows + "]}}");
+        }).start();
+        client = stub.client();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void syncAndAsyncListingsReturnRowsInPageOrder() {
+        List<Map<String, Object>> sync = client.fetchDevicesForOrg(7, 3);
+        List<Map<String, Object>> async = client.fetchDevicesForOrgAsync(7, 3).join();
+
+        assertEquals(PAGES * PER_PAGE, sync.size());
+        assertEquals(sync, async);
+        assertEquals("MAC-1-0", sync.get(0).get("mac"));
+        assertEquals("MAC-5-2", sync.get(sync.size() - 1).get("mac"));
+        assertEquals("Téléphone 1", sync.get(1).get("deviceName"));
+
+        List<DeviceRow> typed = client.fetchDeviceRowsForOrg(7, 3);
+        assertEquals(PAGES * PER_PAGE, typed.size());
+        assertEquals("MAC-5-2", typed.get(typed.size() - 1).mac());
+    }
+}
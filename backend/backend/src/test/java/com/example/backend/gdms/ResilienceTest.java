@@ -0,0 +1,102 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.backend.gdms.GdmsStub.reply;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilienceTest {
+
+    private GdmsStub stub;
+    private GDMSAPI client;
+    private final AtomicInteger statusHits = new AtomicInteger();
+    private volatile int failFirst = 0;     // answer 503 to this many calls before succeeding
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = new GdmsStub().route("/oapi/v1.0.0/device/account/status", ex -> {
+            if (statusHits.incrementAndGet() <= failFirst) reply(ex, 503, "busy");
+            else reply(ex, 200, "{\"retCode\":0,\"data\":{\"accountStatus\":1}}");
+        }).start();
+        client = stub.client();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void transientFailuresAreRetried() {
+        client.setRetryPolicy(3, 1, 5, Set.of());
+        failFirst = 2;
+
+        assertNotNull(client.getDeviceAccountStatus("00:0B:82:00:00:01").get("data"));
+        assertEquals(3, statusHits.get());
+    }
+
+    @Test
+    void attemptsRetriesAndTokenGrantsAreReported() {
+        List<String> events = new CopyOnWriteArrayList<>();
+        client.setMetrics(new GdmsMetrics() {
+            @Override public void call(String endpoint, String outcome, long nanos) { events.add(endpoint + " " + outcome); }
+            @Override public void retry(String endpoint) { events.add("retry " + endpoint); }
+            @Override public void tokenGrant(String grant, boolean ok, long nanos) { events.add("token " + grant + " " + ok); }
+        });
+        client.setRetryPolicy(3, 1, 5, Set.of());
+        failFirst = 1;
+
+        client.getDeviceAccountStatus("00:0B:82:00:00:01");
+        assertEquals(List.of(
+                "token password true",
+                "/device/account/status http_5xx",
+                "retry /device/account/status",
+                "/device/account/status ok"), events);
+    }
+
+    @Test
+    void breakerOpensAndFailsFast() {
+        client.setRetryPolicy(1, 1, 1, Set.of());
+        client.setCircuitBreaker(4, 50, 60);
+        failFirst = Integer.MAX_VALUE;
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> client.getDeviceAccountStatus("00:0B:82:00:00:01"));
+        }
+        int hitsWhenOpened = statusHits.get();
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> client.getDeviceAccountStatus("00:0B:82:00:00:01"));
+
+        assertInstanceOf(CircuitBreaker.OpenException.class, e.getCause());
+        assertEquals(hitsWhenOpened, statusHits.get(), "open breaker must not reach GDMS");
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState().get("/device/account/status").state());
+    }
+
+    @Test
+    void abortedProbeFreesTheSlotWithoutClosingTheBreaker() {
+        client.setRetryPolicy(1, 1, 1, Set.of());
+        client.setCircuitBreaker(4, 50, 0);                  // half-open at the next call
+        failFirst = Integer.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> client.getDeviceAccountStatus("00:0B:82:00:00:01"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState().get("/device/account/status").state());
+
+        Thread.currentThread().interrupt();                   // the probe is aborted locally, GDMS never answers
+        assertThrows(RuntimeException.class, () -> client.getDeviceAccountStatus("00:0B:82:00:00:01"));
+        Thread.interrupted();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getCircuitState().get("/device/account/status").state());
+
+        failFirst = 0;                                        // next probe is admitted and closes it
+        assertNotNull(client.getDeviceAccountStatus("00:0B:82:00:00:01"));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState().get("/device/account/status").state());
+    }
+}
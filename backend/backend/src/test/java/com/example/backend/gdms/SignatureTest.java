@@ -0,0 +1,72 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignatureTest {
+
+    private static final String BASE = "https://www.gdms.cloud/oapi/v1.0.0";
+
+    /** The original signing steps: query + fixed params in a map, sorted join, wrap, SHA-256. */
+    private static String reference(String url, String token, String id, String secret, long ts,
+                                    Object body, boolean caseSensitive) throws Exception {
+        Map<String, String> p = new LinkedHashMap<>(GDMSAPI.Signature.parseQuery(url));
+        p.put("access_token", token);
+        p.put("client_id", id);
+        p.put("client_secret", secret);
+        p.put("timestamp", String.valueOf(ts));
+        String canonical = GDMSAPI.Signature.kvJoin(p, caseSensitive);
+        if (body != null) {
+            canonical += "&" + sha256(GDMSAPI.MiniJson.stringify(body).getBytes(StandardCharsets.UTF_8));
+        }
+        return sha256(GDMSAPI.Signature.wrapAmpersands(canonical).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        byte[] d = MessageDigest.getInstance("SHA-256").digest(data);
+        return String.format("%064x", new BigInteger(1, d));
+    }
+
+    @Test
+    void fastPathProducesIdenticalSignatures() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("pageSize", 5000);
+        body.put("orgId", 119499);
+        body.put("order", "");
+
+        for (String url : List.of(BASE + "/device/list", BASE + "/org/list?lang=en&a=1", BASE + "/org/list?")) {
+            for (boolean caseSensitive : List.of(true, false)) {
+                for (Object b : new Object[] {body, null}) {
+                    for (String secret : List.of("s3cret", "other&secret")) {
+                        long ts = 1_700_000_000_123L;
+                        GDMSAPI.Signature.JsonSig sig = GDMSAPI.Signature.buildSignatureJson(
+                                url, "tok-Ünï", "client", secret, ts, b, true, caseSensitive);
+                        assertEquals(reference(url, "tok-Ünï", "client", secret, ts, b, caseSensitive),
+                                sig.signature, url + " " + caseSensitive + " " + secret);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void fastUrlMatchesRebuiltUrl() {
+        String url = BASE + "/device/account/status";
+        String token = "a b+c/=";
+        Map<String, String> q = GDMSAPI.Signature.parseQuery(url);
+        q.put("access_token", token);
+        q.put("timestamp", "1700000000123");
+        q.put("signature", "abc123");
+
+        assertEquals(GDMSAPI.Signature.rebuildUrlWithQuery(url, q),
+                GDMSAPI.Signature.attachCommonParamsToUrl(url, token, 1_700_000_000_123L, "abc123"));
+    }
+}
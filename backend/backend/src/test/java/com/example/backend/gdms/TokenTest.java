@@ -0,0 +1,96 @@
+package com.example.backend.gdms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.backend.gdms.GdmsStub.reply;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenTest {
+
+    private GdmsStub stub;
+    private GDMSAPI client;
+    private final AtomicInteger passwordGrants = new AtomicInteger();
+    private final AtomicInteger refreshGrants = new AtomicInteger();
+    private volatile boolean rejectRefresh;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = new GdmsStub().route(GdmsStub.TOKEN_PATH, ex -> {
+            String query = ex.getRequestURI().getRawQuery();
+            boolean refresh = query.contains("grant_type=refresh_token");
+            int n = (refresh ? refreshGrants : passwordGrants).incrementAndGet() + (refresh ? 100 : 0);
+            try {
+                Thread.sleep(50);                       // keep the grant in flight while others arrive
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (refresh && rejectRefresh) {
+                reply(ex, 401, "{\"error\":\"invalid_grant\"}");
+                return;
+            }
+            // the first token is already inside the client's 120 s expiry skew: due at once
+            int expiresIn = (n == 1) ? 60 : 3600;
+            reply(ex, 200, "{\"access_token\":\"tok" + n + "\",\"refresh_token\":\"r" + n
+                    + "\",\"token_type\":\"bearer\",\"expires_in\":" + expiresIn + "}");
+        }).start();
+        client = stub.client();
+        assertEquals("tok1", client.ensureToken());
+        assertEquals(1, passwordGrants.get());
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void concurrentCallersAtExpiryShareOneRefresh() throws Exception {
+        List<String> tokens = ensureTokenConcurrently(32);
+
+        assertEquals(1, refreshGrants.get());
+        assertEquals(1, passwordGrants.get());
+        assertTrue(tokens.stream().allMatch("tok101"::equals), tokens.toString());
+    }
+
+    @Test
+    void rejectedRefreshFallsBackToOnePasswordGrant() throws Exception {
+        rejectRefresh = true;
+
+        List<String> tokens = ensureTokenConcurrently(32);
+
+        assertEquals(1, refreshGrants.get());
+        assertEquals(2, passwordGrants.get());
+        assertTrue(tokens.stream().allMatch("tok2"::equals), tokens.toString());
+    }
+
+    private List<String> ensureTokenConcurrently(int callers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return client.ensureToken();
+                }));
+            }
+            go.countDown();
+            List<String> tokens = new ArrayList<>();
+            for (Future<String> f : results) tokens.add(f.get());
+            return tokens;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
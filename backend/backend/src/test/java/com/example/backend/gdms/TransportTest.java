@@ -0,0 +1,109 @@
+package com.example.backend.gdms;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportTest {
+
+    private Tomcat tomcat;
+    private GDMSAPI client;
+    private final Map<String, String> seen = new ConcurrentHashMap<>();   // path -> "protocol accept-encoding"
+
+    @BeforeEach
+    void startHttp2Stub(@TempDir Path baseDir) throws Exception {
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(0);
+        tomcat.getConnector().addUpgradeProtocol(new Http2Protocol());   // h2c
+        Context ctx = tomcat.addContext("", null);
+        Tomcat.addServlet(ctx, "gdms", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                String path = req.getRequestURI();
+                seen.put(path, req.getProtocol() + " " + req.getHeader("Accept-Encoding"));
+                if (path.endsWith("/oauth/token")) {
+                    write(resp, "{\"access_token\":\"tok\",\"token_type\":\"bearer\",\"expires_in\":3600}", false);
+                } else if (path.endsWith("/device/list")) {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException ignored) {}
+                    write(resp, "{\"retCode\":0,\"data\":{\"pages\":1,\"result\":[]}}", false);
+                } else {
+                    write(resp, "{\"retCode\":0,\"data\":{\"accountStatus\":1,\"dnd\":0}}",
+                            String.valueOf(req.getHeader("Accept-Encoding")).contains("gzip"));
+                }
+            }
+        });
+        ctx.addServletMappingDecoded("/*", "gdms");
+        tomcat.start();
+
+        client = new GDMSAPI("http://127.0.0.1:" + tomcat.getConnector().getLocalPort(),
+                "user", "pass", "id", "secret", null, 120, 5, false);
+        client.setRetryPolicy(1, 1, 1, Set.of());
+    }
+
+    @AfterEach
+    void stopStub() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    @Test
+    void signedCallsUseHttp2AndInflateGzipBodies() {
+        client.ensureToken();                          // plain GET: upgrades the connection to h2c
+        AccountStatus status = client.getAccountStatus("00:0B:82:00:00:01");
+
+        assertEquals(1, status.accountStatus());
+        assertEquals("HTTP/2.0 gzip", seen.get("/oapi/v1.0.0/device/account/status"));
+    }
+
+    @Test
+    void endpointTimeoutAppliesOnlyToThatEndpoint() {
+        client.setRequestTimeouts(Map.of("/device/list", Duration.ofMillis(300)));
+
+        long start = System.nanoTime();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.fetchDeviceRowsForOrg(1, 100));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1500);
+        Throwable cause = e;
+        while (cause.getCause() != null && !(cause instanceof HttpTimeoutException)) cause = cause.getCause();
+        assertInstanceOf(HttpTimeoutException.class, cause);
+
+        assertNotNull(client.getAccountStatus("00:0B:82:00:00:02"));   // default timeout elsewhere
+    }
+
+    private static void write(HttpServletResponse resp, String json, boolean gzip) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        if (gzip) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            try (GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+                gz.write(body);
+            }
+            body = buf.toByteArray();
+            resp.setHeader("Content-Encoding", "gzip");
+        }
+        resp.setContentType("application/json");
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+}